@@ -0,0 +1,82 @@
+package edu.greenriver.sdev.sassproject.config;
+
+import edu.greenriver.sdev.sassproject.models.ConflictDetector;
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Executor microbenchmark comparing the two thread models behind the execution
+ * modes: a platform thread pool the size of Tomcat's default (200 threads) and
+ * a virtual thread per task. Each operation is a burst of concurrent tasks,
+ * each verifying a 16x16 board and then parking briefly, standing in for a
+ * request waiting on I/O. No HTTP, Tomcat, or Spring is involved, so the
+ * results compare the executors only, not request latency through the server.
+ * Throughput is bursts per second; the sample mode reports p99 of the time to
+ * finish a whole burst. The virtual mode needs Java 21: gradle jmh -PjavaVersion=21
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecutionModeBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long BLOCKED_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"2000"})
+    private int concurrency;
+
+    private ExecutorService executor;
+    private int[] board;
+
+    /**
+     * Creates the executor for the mode and a solved 16x16 board to verify.
+     */
+    @Setup
+    public void setUp() {
+        executor = mode.equals("virtual")
+                ? VirtualThreads.perTaskExecutor("benchmark-")
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        board = new PuzzleGenerator().generateSolution(BoardSize.B16x16);
+    }
+
+    /**
+     * Stops the executor.
+     */
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return requests that found conflicts (always 0)
+     * @throws InterruptedException if interrupted waiting for the burst
+     */
+    @Benchmark
+    public int burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        int[] conflicts = new int[1];
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                if (ConflictDetector.hasConflicts(BoardSize.B16x16, board)) {
+                    conflicts[0]++;
+                }
+                LockSupport.parkNanos(BLOCKED_NANOS);
+                done.countDown();
+            });
+        }
+        done.await();
+        return conflicts[0];
+    }
+}
@@ -0,0 +1,88 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of validating a submitted board, as done by the
+ * boards/{size}/solved endpoint (board construction plus win check).
+ * Run with the GC profiler to compare allocations per validation.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoardValidationBenchmark {
+
+    @Param({"B4x4", "B9x9", "B16x16"})
+    private BoardSize size;
+
+    private int[] solvedBoard;
+    private int[] conflictedBoard;
+    private Board board;
+
+    /**
+     * Builds a solved board of the benchmarked size.
+     */
+    @Setup
+    public void setUp() {
+        solvedBoard = solvedBoard(size);
+        conflictedBoard = solvedBoard.clone();
+        conflictedBoard[1] = conflictedBoard[0];
+        board = new Board(size, solvedBoard);
+    }
+
+    /**
+     * @return true if the board is solved (always)
+     */
+    @Benchmark
+    public boolean validateSolvedBoard() {
+        return new Board(size, solvedBoard).checkForWin();
+    }
+
+    /**
+     * @return true if the board is solved (always), checked on a board already built
+     */
+    @Benchmark
+    public boolean checkForWin() {
+        return board.checkForWin();
+    }
+
+    /**
+     * @return cells in conflict on a board with one repeated value
+     */
+    @Benchmark
+    public Set<Integer> findConflicts() {
+        return ConflictDetector.findConflictingCells(size, conflictedBoard);
+    }
+
+    /**
+     * @return shared graph lookups for every cell of the board
+     */
+    @Benchmark
+    public int buildGraph() {
+        SudokuGraph graph = SudokuGraph.of(size);
+        int edges = 0;
+        for (int cell = 0; cell < size.getCellCount(); cell++) {
+            edges += graph.getConflictingCells(cell).length;
+        }
+        return edges;
+    }
+
+    // Method to build a valid solved board using the standard shifted pattern
+    static int[] solvedBoard(BoardSize size) {
+        int dimension = size.getDimensions();
+        int root = size.getRoot();
+        int[] board = new int[size.getCellCount()];
+        for (int row = 0; row < dimension; row++) {
+            for (int col = 0; col < dimension; col++) {
+                board[row * dimension + col] = (root * (row % root) + row / root + col) % dimension + 1;
+            }
+        }
+        return board;
+    }
+}
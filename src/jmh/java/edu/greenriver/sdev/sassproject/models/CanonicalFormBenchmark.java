@@ -0,0 +1,48 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of finding the canonical form of a submitted solution,
+ * which runs inline when a completed board is stored.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CanonicalFormBenchmark {
+
+    private static final int SOLUTIONS = 64;
+
+    @Param({"B4x4", "B9x9", "B16x16"})
+    private BoardSize size;
+
+    private int[][] solutions;
+    private int next;
+
+    /**
+     * Generates a fixed set of random solutions to cycle through.
+     */
+    @Setup
+    public void setUp() {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        solutions = new int[SOLUTIONS][];
+        for (int i = 0; i < SOLUTIONS; i++) {
+            solutions[i] = generator.generateSolution(size);
+        }
+    }
+
+    /**
+     * @return canonical form of the next solution
+     */
+    @Benchmark
+    public int[] canonicalize() {
+        int[] solution = solutions[next];
+        next = (next + 1) % SOLUTIONS;
+        return CanonicalForm.canonicalize(size, solution);
+    }
+}
@@ -0,0 +1,40 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures puzzle generation throughput on a single thread (puzzles/sec per core)
+ * using the default clue targets and time budget.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class GeneratorBenchmark {
+
+    @Param({"B4x4", "B9x9", "B16x16"})
+    private BoardSize size;
+
+    private final PuzzleGenerator generator = new PuzzleGenerator();
+
+    /**
+     * @return a new puzzle with a unique solution
+     */
+    @Benchmark
+    public int[] generatePuzzle() {
+        return generator.generate(size);
+    }
+
+    /**
+     * @return a new random complete grid
+     */
+    @Benchmark
+    public int[] generateSolution() {
+        return generator.generateSolution(size);
+    }
+}
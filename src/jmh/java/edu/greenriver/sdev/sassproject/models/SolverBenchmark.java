@@ -0,0 +1,78 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Dancing Links solve latency for a typical and a hard puzzle.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SolverBenchmark {
+
+    // "AI Escargot", one of the hardest known 9x9 puzzles for backtracking
+    private static final String HARD_9x9 =
+            "100007090030020008009600500005300900010080002600004000300000010040000007007000300";
+
+    private static final int[] TYPICAL_16x16 = new int[]
+            {
+                    1,  0,  0,  2,  3,  4,  0,  0, 12,  0,  6,  0,  0,  0,  7,  0,
+                    0,  0,  8,  0,  0,  0,  7,  0,  0,  3,  0,  0,  9, 10,  6, 11,
+                    0, 12,  0,  0, 10,  0,  0,  1,  0, 13,  0, 11,  0,  0, 14,  0,
+                    3,  0,  0, 15,  2,  0,  0, 14,  0,  0,  0,  9,  0,  0, 12,  0,
+                    13,  0,  0,  0,  8,  0,  0, 10,  0, 12,  2,  0,  1, 15,  0,  0,
+                    0, 11,  7,  6,  0,  0,  0, 16,  0,  0,  0, 15,  0,  0,  5, 13,
+                    0,  0,  0, 10,  0,  5, 15,  0,  0,  4,  0,  8,  0,  0, 11,  0,
+                    16,  0,  0,  5,  9, 12,  0,  0,  1,  0,  0,  0,  0,  0,  8,  0,
+                    0,  2,  0,  0,  0,  0,  0, 13,  0,  0, 12,  5,  8,  0,  0,  3,
+                    0, 13,  0,  0, 15,  0,  3,  0,  0, 14,  8,  0, 16,  0,  0,  0,
+                    5,  8,  0,  0,  1,  0,  0,  0,  2,  0,  0,  0, 13,  9, 15,  0,
+                    0,  0, 12,  4,  0,  6, 16,  0, 13,  0,  0,  7,  0,  0,  0,  5,
+                    0,  3,  0,  0, 12,  0,  0,  0,  6,  0,  0,  4, 11,  0,  0, 16,
+                    0,  7,  0,  0, 16,  0,  5,  0, 14,  0,  0,  1,  0,  0,  2,  0,
+                    11,  1, 15,  9,  0,  0, 13,  0,  0,  2,  0,  0,  0, 14,  0,  0,
+                    0, 14,  0,  0,  0, 11,  0,  2,  0,  0, 13,  3,  5,  0,  0, 12,
+            };
+
+    private int[] hard9x9;
+
+    /**
+     * Parses the hard 9x9 puzzle.
+     */
+    @Setup
+    public void setUp() {
+        hard9x9 = new int[HARD_9x9.length()];
+        for (int i = 0; i < hard9x9.length; i++) {
+            hard9x9[i] = HARD_9x9.charAt(i) - '0';
+        }
+    }
+
+    /**
+     * @return solution of a hard 9x9 puzzle
+     */
+    @Benchmark
+    public int[] solveHard9x9() {
+        return SudokuSolver.solve(BoardSize.B9x9, hard9x9);
+    }
+
+    /**
+     * @return solution of a typical 16x16 puzzle
+     */
+    @Benchmark
+    public int[] solveTypical16x16() {
+        return SudokuSolver.solve(BoardSize.B16x16, TYPICAL_16x16);
+    }
+
+    /**
+     * @return number of solutions (up to 2) of the hard 9x9 puzzle
+     */
+    @Benchmark
+    public int checkUniqueHard9x9() {
+        return SudokuSolver.countSolutions(BoardSize.B9x9, hard9x9, 2);
+    }
+}
@@ -0,0 +1,126 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures throughput of adding solved boards to the shared store from 1 to 32
+ * threads at once. Every thread cycles through the same solutions, so after the
+ * first pass most adds find an equivalent board already stored (the common case
+ * for repeat submissions) and threads contend on the same keys.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CompleteBoardStoreBenchmark {
+
+    private static final int SOLUTIONS = 1024;
+
+    @Param({"B4x4", "B9x9"})
+    private BoardSize size;
+
+    private int[][] solutions;
+    private ScheduledExecutorService background;
+    private ForkJoinPool verificationPool;
+    private SudokuService service;
+
+    /**
+     * Position of each thread in the solutions.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    /**
+     * Creates the service and a fixed set of random solutions to add.
+     */
+    @Setup
+    public void setUp() {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        background = Executors.newSingleThreadScheduledExecutor();
+        verificationPool = new ForkJoinPool(1);
+        PuzzlePool pool = new PuzzlePool(generator, background, PuzzleLibrary.disabled(), new SimpleMeterRegistry(), 0, 0, 0, 60_000);
+        service = new SudokuService(generator, pool, PuzzleLibrary.disabled(), verificationPool, MutationLog.disabled(),
+                new SimpleMeterRegistry());
+
+        solutions = new int[SOLUTIONS][];
+        for (int i = 0; i < SOLUTIONS; i++) {
+            solutions[i] = generator.generateSolution(size);
+        }
+    }
+
+    /**
+     * Stops the service's executors.
+     */
+    @TearDown
+    public void tearDown() {
+        background.shutdownNow();
+        verificationPool.shutdownNow();
+    }
+
+    private boolean add(Cursor cursor) {
+        int[] solution = solutions[cursor.next];
+        cursor.next = (cursor.next + 1) % SOLUTIONS;
+        return service.addCompleteBoard(size, solution);
+    }
+
+    /**
+     * @param cursor position of this thread
+     * @return true if the board was new
+     */
+    @Benchmark
+    @Threads(1)
+    public boolean add1Thread(Cursor cursor) {
+        return add(cursor);
+    }
+
+    /**
+     * @param cursor position of this thread
+     * @return true if the board was new
+     */
+    @Benchmark
+    @Threads(4)
+    public boolean add4Threads(Cursor cursor) {
+        return add(cursor);
+    }
+
+    /**
+     * @param cursor position of this thread
+     * @return true if the board was new
+     */
+    @Benchmark
+    @Threads(8)
+    public boolean add8Threads(Cursor cursor) {
+        return add(cursor);
+    }
+
+    /**
+     * @param cursor position of this thread
+     * @return true if the board was new
+     */
+    @Benchmark
+    @Threads(16)
+    public boolean add16Threads(Cursor cursor) {
+        return add(cursor);
+    }
+
+    /**
+     * @param cursor position of this thread
+     * @return true if the board was new
+     */
+    @Benchmark
+    @Threads(32)
+    public boolean add32Threads(Cursor cursor) {
+        return add(cursor);
+    }
+}
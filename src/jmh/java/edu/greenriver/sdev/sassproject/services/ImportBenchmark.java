@@ -0,0 +1,89 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.ImportResult;
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures bulk import of solved boards, in boards per second, from a
+ * newline-delimited body of distinct solutions into an empty store. Covers
+ * parsing, checking, keying and storing; the mutation log is off. The
+ * verification pool has one thread per core.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ImportBenchmark.BOARDS)
+public class ImportBenchmark {
+
+    static final int BOARDS = 2048;
+
+    @Param({"B4x4", "B9x9"})
+    private BoardSize size;
+
+    @Param({"true", "false"})
+    private boolean canonical;
+
+    private byte[] body;
+    private PuzzleGenerator generator;
+    private ScheduledExecutorService background;
+    private ForkJoinPool verificationPool;
+    private SudokuService service;
+
+    /**
+     * Builds the body of distinct solutions and the executors.
+     */
+    @Setup
+    public void setUp() {
+        generator = new PuzzleGenerator();
+        background = Executors.newSingleThreadScheduledExecutor();
+        verificationPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < BOARDS; i++) {
+            lines.append(Arrays.toString(generator.generateSolution(size)).replace(" ", "")).append('\n');
+        }
+        body = lines.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Starts every import with an empty store.
+     */
+    @Setup(Level.Invocation)
+    public void newService() {
+        PuzzlePool pool = new PuzzlePool(generator, background, PuzzleLibrary.disabled(), new SimpleMeterRegistry(), 0, 0, 0, 60_000);
+        service = new SudokuService(generator, pool, PuzzleLibrary.disabled(), verificationPool, MutationLog.disabled(),
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * Stops the executors.
+     */
+    @TearDown
+    public void tearDown() {
+        background.shutdownNow();
+        verificationPool.shutdownNow();
+    }
+
+    /**
+     * @return counts of the import
+     * @throws IOException never, the body is in memory
+     */
+    @Benchmark
+    public ImportResult importBoards() throws IOException {
+        return service.importCompleteBoards(size, new ByteArrayInputStream(body), canonical);
+    }
+}
@@ -0,0 +1,112 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PackedBoard;
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.User;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the latency a caller sees when logging a change (sampled, so the
+ * report includes p99): queueing it, and queueing it then waiting until it is
+ * synced. The fsync happens on the writer thread, batched with every other
+ * change queued while the previous sync ran. Once the queue is full, queueing
+ * waits for the writer, so logBoard measures the rate the disk sustains.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MutationLogBenchmark {
+
+    private static final int BOARDS = 1024;
+
+    private Path directory;
+    private MutationLog log;
+    private PackedBoard[] boards;
+    private User user;
+
+    /**
+     * Position of each thread in the boards.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    /**
+     * Opens a log in a temporary directory.
+     * @throws IOException if the directory cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mutation-log");
+        log = new MutationLog(directory.toString(), 65536);
+        log.recover(RecoveryBenchmark.IGNORE);
+
+        PuzzleGenerator generator = new PuzzleGenerator();
+        boards = new PackedBoard[BOARDS];
+        for (int i = 0; i < BOARDS; i++) {
+            boards[i] = PackedBoard.of(BoardSize.B9x9, generator.generateSolution(BoardSize.B9x9));
+        }
+        user = new User("example");
+    }
+
+    /**
+     * Closes the log and deletes its files.
+     * @throws IOException if the files cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        log.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * @param cursor position of this thread
+     */
+    @Benchmark
+    public void logBoard(Cursor cursor) {
+        log.boardAdded(boards[cursor.next]);
+        cursor.next = (cursor.next + 1) % BOARDS;
+    }
+
+    /**
+     * Logs a board and waits until it is synced, as a request does.
+     * @param cursor position of this thread
+     */
+    @Benchmark
+    public void logBoardDurable(Cursor cursor) {
+        log.boardAdded(boards[cursor.next]);
+        log.awaitDurable();
+        cursor.next = (cursor.next + 1) % BOARDS;
+    }
+
+    /**
+     * @param cursor position of this thread
+     */
+    @Benchmark
+    @Threads(8)
+    public void logBoard8Threads(Cursor cursor) {
+        log.boardAdded(boards[cursor.next]);
+        cursor.next = (cursor.next + 1) % BOARDS;
+    }
+
+    /**
+     * Logs a user (encoded as JSON on the calling thread).
+     */
+    @Benchmark
+    public void logUser() {
+        log.userSaved("example", RecoveryBenchmark.PASSWORD_HASH, user);
+    }
+}
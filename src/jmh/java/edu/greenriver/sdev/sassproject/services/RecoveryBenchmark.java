@@ -0,0 +1,132 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PackedBoard;
+import edu.greenriver.sdev.sassproject.models.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures startup recovery with 1M users: loading a snapshot of every user,
+ * then replaying a log tail that updates a tenth of them. Each user holds
+ * about 1.4 KB of heap once recovered, so the fork gets a 3 GB heap; with
+ * less, the run mostly measures GC.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(jvmArgsAppend = "-Xmx3g")
+public class RecoveryBenchmark {
+
+    /** Password hash stored for every user (hashed once, since hashing is slow) */
+    static final String PASSWORD_HASH = PasswordHasher.hash("password");
+
+    /** Discards replayed changes */
+    static final Mutations IGNORE = new Mutations() {
+        @Override
+        public void userSaved(String username, String passwordHash, User user) {
+        }
+
+        @Override
+        public void userDeleted(String username) {
+        }
+
+        @Override
+        public void boardAdded(PackedBoard board) {
+        }
+    };
+
+    @Param({"1000000"})
+    private int users;
+
+    private Path directory;
+    private ScheduledExecutorService background;
+
+    /**
+     * Writes a snapshot of every user and a log tail.
+     * @throws IOException if the directory cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("recovery");
+
+        MutationLog log = new MutationLog(directory.toString(), 65536);
+        log.recover(IGNORE);
+        log.snapshot(sink -> {
+            for (int i = 0; i < users; i++) {
+                sink.userSaved("player" + i, PASSWORD_HASH, new User("player" + i));
+            }
+        });
+        for (int i = 0; i < users; i += 10) {
+            log.userSaved("player" + i, PASSWORD_HASH, new User("player" + i));
+        }
+        log.close();
+    }
+
+    /**
+     * Deletes the log files.
+     * @throws IOException if the files cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Starts the executor the recovered service sweeps tokens on.
+     */
+    @Setup(Level.Iteration)
+    public void startBackground() {
+        background = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Stops the token sweep, which would otherwise keep the last iteration's
+     * users reachable (and the heap full) during the next one.
+     */
+    @TearDown(Level.Iteration)
+    public void stopBackground() {
+        background.shutdownNow();
+    }
+
+    /**
+     * @return user service holding every recovered user
+     */
+    @Benchmark
+    public UserService recover() {
+        UserService service = new UserService(background, new TokenIssuer(), MutationLog.disabled(),
+                new SimpleMeterRegistry(), TimeUnit.MINUTES.toMillis(15), 1, 1000);
+        MutationLog log = new MutationLog(directory.toString(), 65536);
+        log.recover(new Mutations() {
+            @Override
+            public void userSaved(String username, String passwordHash, User user) {
+                service.restoreUser(username, passwordHash, user);
+            }
+
+            @Override
+            public void userDeleted(String username) {
+                service.restoreDeletedUser(username);
+            }
+
+            @Override
+            public void boardAdded(PackedBoard board) {
+            }
+        });
+        log.close();
+        return service;
+    }
+}
@@ -0,0 +1,75 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the request paths of the sudoku service: serving a puzzle when the
+ * pool is empty (the worst case, falling back to the seed puzzles) and finding
+ * the conflicts on a submitted board. Run with the GC profiler to compare
+ * allocations per request.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SudokuServiceBenchmark {
+
+    @Param({"B4x4", "B9x9", "B16x16"})
+    private BoardSize size;
+
+    private int[] conflictedBoard;
+    private ScheduledExecutorService background;
+    private ForkJoinPool verificationPool;
+    private SudokuService service;
+
+    /**
+     * Creates the service with an empty pool and a solved board with one repeated value.
+     */
+    @Setup
+    public void setUp() {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        background = Executors.newSingleThreadScheduledExecutor();
+        verificationPool = new ForkJoinPool(1);
+        PuzzlePool pool = new PuzzlePool(generator, background, PuzzleLibrary.disabled(), new SimpleMeterRegistry(), 0, 0, 0, 60_000);
+        service = new SudokuService(generator, pool, PuzzleLibrary.disabled(), verificationPool, MutationLog.disabled(),
+                new SimpleMeterRegistry());
+
+        conflictedBoard = generator.generateSolution(size);
+        conflictedBoard[1] = conflictedBoard[0];
+    }
+
+    /**
+     * Stops the service's executors.
+     */
+    @TearDown
+    public void tearDown() {
+        background.shutdownNow();
+        verificationPool.shutdownNow();
+    }
+
+    /**
+     * @return a seed puzzle (the pool is always empty)
+     */
+    @Benchmark
+    public int[] getSolvableBoard() {
+        return service.getSolvableBoard(size);
+    }
+
+    /**
+     * @return cells in conflict on a board with one repeated value
+     */
+    @Benchmark
+    public Set<Integer> getConflictingCells() {
+        return service.getConflictingCells(size, conflictedBoard);
+    }
+}
@@ -0,0 +1,75 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous token generation (a new SHA-256 digest of the username
+ * and time, converted through BigInteger and padded one character at a time)
+ * with TokenIssuer, single threaded and from 8 threads at once.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenBenchmark {
+
+    private static final int TOKEN_PAD_SIZE = 64;
+    private static final int HEX_BASE = 16;
+
+    private final TokenIssuer issuer = new TokenIssuer();
+
+    /**
+     * @return token made the way User.generateToken used to
+     * @throws NoSuchAlgorithmException never (SHA-256 is always available)
+     */
+    @Benchmark
+    public String sha256Token() throws NoSuchAlgorithmException {
+        return legacyToken("example", (int) System.currentTimeMillis());
+    }
+
+    /**
+     * @return token from the issuer
+     */
+    @Benchmark
+    public String issuedToken() {
+        return issuer.issue();
+    }
+
+    /**
+     * @return token made the way User.generateToken used to
+     * @throws NoSuchAlgorithmException never (SHA-256 is always available)
+     */
+    @Benchmark
+    @Threads(8)
+    public String sha256Token8Threads() throws NoSuchAlgorithmException {
+        return legacyToken("example", (int) System.currentTimeMillis());
+    }
+
+    /**
+     * @return token from the issuer
+     */
+    @Benchmark
+    @Threads(8)
+    public String issuedToken8Threads() {
+        return issuer.issue();
+    }
+
+    // Previous implementation of User.generateToken, kept as the baseline
+    private static String legacyToken(String username, int timeInterval) throws NoSuchAlgorithmException {
+        MessageDigest hash = MessageDigest.getInstance("SHA-256");
+        byte[] newToken = hash.digest((username + timeInterval).getBytes(StandardCharsets.UTF_8));
+        BigInteger number = new BigInteger(1, newToken);
+        StringBuilder hexString = new StringBuilder(number.toString(HEX_BASE));
+        while (hexString.length() < TOKEN_PAD_SIZE) {
+            hexString.insert(0, '0');
+        }
+        return hexString.toString();
+    }
+}
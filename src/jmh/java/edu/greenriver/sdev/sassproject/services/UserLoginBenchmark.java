@@ -0,0 +1,107 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.GameRules;
+import edu.greenriver.sdev.sassproject.models.GameStyle;
+import edu.greenriver.sdev.sassproject.models.GamesWon;
+import edu.greenriver.sdev.sassproject.models.User;
+import edu.greenriver.sdev.sassproject.models.enums.Rank;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures login throughput when every thread logs in its own user, so any
+ * slowdown as threads are added comes from contention inside the user store.
+ * Each login hashes the password (PBKDF2), which dominates the time per login,
+ * so results are not comparable with runs from before passwords were hashed;
+ * the hashing is done before the user's record is locked. Each thread logs in
+ * as its own user, and hash permits are per user, so threads never wait for
+ * each other's permits.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserLoginBenchmark {
+
+    private static final int MAX_USERS = 256;
+    private static final String PASSWORD = "password";
+
+    private ScheduledExecutorService background;
+    private UserService service;
+    private final AtomicInteger nextUser = new AtomicInteger();
+
+    /**
+     * The user logged in by each thread.
+     */
+    @State(Scope.Thread)
+    public static class Player {
+        private String username;
+
+        /**
+         * Claims a distinct user for this thread.
+         * @param benchmark shared benchmark state
+         */
+        @Setup
+        public void setUp(UserLoginBenchmark benchmark) {
+            username = "player" + benchmark.nextUser.getAndIncrement();
+        }
+    }
+
+    /**
+     * Creates a user for every thread.
+     */
+    @Setup
+    public void setUp() {
+        background = Executors.newSingleThreadScheduledExecutor();
+        service = new UserService(background, new TokenIssuer(), MutationLog.disabled(),
+                new SimpleMeterRegistry(), TimeUnit.MINUTES.toMillis(15), 1, 1000);
+        for (int i = 0; i < MAX_USERS; i++) {
+            service.addUser(new User("player" + i, PASSWORD, 0, new GamesWon(), 0,
+                    Rank.STRATUS, new GameStyle(), new GameRules()));
+        }
+    }
+
+    /**
+     * Stops the token expiry sweep.
+     */
+    @TearDown
+    public void tearDown() {
+        background.shutdownNow();
+    }
+
+    /**
+     * @param player user of this thread
+     * @return the logged-in user
+     */
+    @Benchmark
+    @Threads(1)
+    public User login1Thread(Player player) {
+        return service.getUserByName(player.username, PASSWORD);
+    }
+
+    /**
+     * @param player user of this thread
+     * @return the logged-in user
+     */
+    @Benchmark
+    @Threads(8)
+    public User login8Threads(Player player) {
+        return service.getUserByName(player.username, PASSWORD);
+    }
+
+    /**
+     * @param player user of this thread
+     * @return the logged-in user
+     */
+    @Benchmark
+    @Threads(32)
+    public User login32Threads(Player player) {
+        return service.getUserByName(player.username, PASSWORD);
+    }
+}
@@ -0,0 +1,73 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.GameRules;
+import edu.greenriver.sdev.sassproject.models.GameStyle;
+import edu.greenriver.sdev.sassproject.models.GamesWon;
+import edu.greenriver.sdev.sassproject.models.User;
+import edu.greenriver.sdev.sassproject.models.enums.Rank;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of getting a user by name with a password (login,
+ * which hashes the password and issues a new token) and with the current token
+ * (which only extends it).
+ * Run with the GC profiler to compare allocations per request.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserLookupBenchmark {
+
+    private static final String USERNAME = "benchmark";
+    private static final String PASSWORD = "password";
+
+    private ScheduledExecutorService background;
+    private UserService service;
+    private String token;
+
+    /**
+     * Creates a user and logs them in once for a token.
+     */
+    @Setup
+    public void setUp() {
+        background = Executors.newSingleThreadScheduledExecutor();
+        service = new UserService(background, new TokenIssuer(), MutationLog.disabled(),
+                new SimpleMeterRegistry(), TimeUnit.MINUTES.toMillis(15), 1, 1000);
+        service.addUser(new User(USERNAME, PASSWORD, 0, new GamesWon(), 0,
+                Rank.STRATUS, new GameStyle(), new GameRules()));
+        token = service.getUserByName(USERNAME, PASSWORD).getToken();
+    }
+
+    /**
+     * Stops the token expiry sweep.
+     */
+    @TearDown
+    public void tearDown() {
+        background.shutdownNow();
+    }
+
+    /**
+     * @return the logged-in user (with a new token)
+     */
+    @Benchmark
+    public User getUserByPassword() {
+        User user = service.getUserByName(USERNAME, PASSWORD);
+        token = user.getToken();
+        return user;
+    }
+
+    /**
+     * @return the user (token extended)
+     */
+    @Benchmark
+    public User getUserByToken() {
+        return service.getUserByName(USERNAME, token);
+    }
+}
@@ -0,0 +1,136 @@
+package edu.greenriver.sdev.sassproject.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resource resolver that keeps the bytes of resolved static files in memory, so
+ * repeat requests never read the classpath. Each encoding of a file (plain,
+ * gzip, brotli) is cached separately, keyed by the encodings the request
+ * accepts. Caching stops once the cache holds the maximum number of bytes;
+ * files past that are served from the classpath as usual.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class InMemoryResourceResolver extends AbstractResourceResolver {
+
+    private final long maxBytes;
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final Map<String, CachedResource> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxBytes most bytes of files to hold in memory
+     */
+    public InMemoryResourceResolver(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        String key = requestPath + "|" + acceptedCodings(request);
+        CachedResource cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null) {
+            // Unknown paths are not cached, so they cannot grow the cache
+            return null;
+        }
+        try {
+            long length = resource.contentLength();
+            if (cachedBytes.addAndGet(length) > maxBytes) {
+                cachedBytes.addAndGet(-length);
+                return resource;
+            }
+            CachedResource loaded = new CachedResource(resource);
+            CachedResource previous = cache.putIfAbsent(key, loaded);
+            if (previous != null) {
+                // Loaded by another request first
+                cachedBytes.addAndGet(-length);
+                return previous;
+            }
+            return loaded;
+        } catch (IOException e) {
+            return resource;
+        }
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    // Method to reduce the Accept-Encoding header to the encodings that are precompressed
+    private static String acceptedCodings(@Nullable HttpServletRequest request) {
+        String header = request == null ? null : request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return "";
+        }
+        header = header.toLowerCase();
+        return (header.contains("br") ? "br," : "") + (header.contains("gzip") ? "gzip" : "");
+    }
+
+    @Override
+    public String toString() {
+        return "InMemoryResourceResolver{" + cache.size() + " files, " + cachedBytes.get() + " bytes}";
+    }
+
+    // A resolved file read into memory, keeping the name, modified time, and
+    // headers (Content-Encoding) of the resource it was read from
+    private static final class CachedResource extends ByteArrayResource implements HttpResource {
+        private final String filename;
+        private final long lastModified;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private CachedResource(Resource resource) throws IOException {
+            super(readAll(resource), resource.getDescription());
+            this.filename = resource.getFilename();
+            this.lastModified = resource.lastModified();
+            if (resource instanceof HttpResource httpResource) {
+                headers.putAll(httpResource.getResponseHeaders());
+            }
+            if (!headers.containsKey(HttpHeaders.VARY)) {
+                // Plain and encoded copies are served from the same URL
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+        }
+
+        private static byte[] readAll(Resource resource) throws IOException {
+            try (InputStream input = resource.getInputStream()) {
+                return input.readAllBytes();
+            }
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            return headers;
+        }
+    }
+}
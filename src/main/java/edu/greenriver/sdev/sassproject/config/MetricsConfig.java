@@ -0,0 +1,63 @@
+package edu.greenriver.sdev.sassproject.config;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Metrics configuration. Request timers (http.server.requests) are tagged with
+ * the board size of the request as well as the endpoint, so latency can be
+ * compared across sizes. Percentiles are set in application.properties.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final String NO_SIZE = "none";
+
+    /**
+     * @return request observation convention adding a size tag to the request timers
+     */
+    @Bean
+    public ServerRequestObservationConvention sizeTaggingConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and("size", boardSize(context.getCarrier()));
+            }
+        };
+    }
+
+    // Method to find the board size of a request, from the path or the size parameter.
+    // Only known sizes are used, so the tag has a fixed set of values
+    private static String boardSize(HttpServletRequest request) {
+        String size = null;
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map<?, ?> pathVariables && pathVariables.get("boardSize") instanceof String path) {
+            size = path;
+        }
+        if (size == null) {
+            size = request.getParameter("size");
+        }
+        for (BoardSize boardSize : BoardSize.values()) {
+            if (boardSize.getName().equals(size)) {
+                return boardSize.getName();
+            }
+        }
+        return NO_SIZE;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsConfig";
+    }
+}
@@ -0,0 +1,96 @@
+package edu.greenriver.sdev.sassproject.config;
+
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared beans for the sudoku services: the puzzle generator, the executor
+ * that runs background work (such as refilling puzzle pools) off the request threads,
+ * and the pool that verifies batches of boards in parallel.
+ * <p>
+ * With sudoku.threads.virtual=true (Java 21 or later), requests and background
+ * work run on virtual threads, so requests blocked on I/O do not hold a platform
+ * thread. Batch verification stays on its fork-join pool, since it is CPU bound.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Configuration
+public class SudokuConfig {
+
+    /**
+     * @param clues4x4 number of clues to leave on generated 4x4 puzzles
+     * @param clues9x9 number of clues to leave on generated 9x9 puzzles
+     * @param clues16x16 number of clues to leave on generated 16x16 puzzles
+     * @param timeBudgetMillis time allowed to generate one puzzle
+     * @return generator configured from application properties
+     */
+    @Bean
+    public PuzzleGenerator puzzleGenerator(@Value("${sudoku.generator.target-clues.4x4:5}") int clues4x4,
+                                           @Value("${sudoku.generator.target-clues.9x9:26}") int clues9x9,
+                                           @Value("${sudoku.generator.target-clues.16x16:110}") int clues16x16,
+                                           @Value("${sudoku.generator.time-budget-ms:500}") long timeBudgetMillis) {
+        return new PuzzleGenerator(Map.of(
+                BoardSize.B4x4, clues4x4,
+                BoardSize.B9x9, clues9x9,
+                BoardSize.B16x16, clues16x16), timeBudgetMillis);
+    }
+
+    /**
+     * @param threads number of background threads
+     * @param virtual true to run background work on virtual threads
+     * @return executor for background work, using low priority daemon threads (or virtual threads)
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService backgroundExecutor(@Value("${sudoku.background.threads:2}") int threads,
+                                                       @Value("${sudoku.threads.virtual:false}") boolean virtual) {
+        if (virtual) {
+            return Executors.newScheduledThreadPool(threads, VirtualThreads.factory("sudoku-background-"));
+        }
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "sudoku-background-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        };
+        return Executors.newScheduledThreadPool(threads, factory);
+    }
+
+    /**
+     * @return customizer that runs every Tomcat request on its own virtual thread
+     */
+    @Bean
+    @ConditionalOnProperty(name = "sudoku.threads.virtual", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadRequests() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.perTaskExecutor("sudoku-request-"));
+    }
+
+    /**
+     * @param parallelism number of threads verifying boards (0 for one per core)
+     * @return fork-join pool for batch verification, kept apart from the common pool
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool verificationPool(@Value("${sudoku.verify.parallelism:0}") int parallelism) {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        return new ForkJoinPool(parallelism);
+    }
+
+    @Override
+    public String toString() {
+        return "SudokuConfig";
+    }
+}
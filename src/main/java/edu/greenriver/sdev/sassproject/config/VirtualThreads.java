@@ -0,0 +1,64 @@
+package edu.greenriver.sdev.sassproject.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads (Java 21) from code compiled for Java 17. The Java 21
+ * methods are looked up when first used, so the app still builds and runs on 17
+ * as long as virtual threads are not turned on.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the running JVM supports virtual threads
+     */
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * @param prefix name of each thread, followed by a count
+     * @return factory that starts a new virtual thread for each task
+     * @throws IllegalStateException if the running JVM does not support virtual threads
+     */
+    public static ThreadFactory factory(String prefix) {
+        try {
+            // Thread.ofVirtual().name(prefix, 1).factory()
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object ofVirtual = Thread.class.getMethod("ofVirtual").invoke(null);
+            Object named = builder.getMethod("name", String.class, long.class).invoke(ofVirtual, prefix, 1L);
+            return (ThreadFactory) builder.getMethod("factory").invoke(named);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later (running "
+                    + Runtime.version() + ")", e);
+        }
+    }
+
+    /**
+     * @param prefix name of each thread, followed by a count
+     * @return executor that runs each task on its own new virtual thread
+     * @throws IllegalStateException if the running JVM does not support virtual threads
+     */
+    public static ExecutorService perTaskExecutor(String prefix) {
+        try {
+            // Executors.newThreadPerTaskExecutor(factory)
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory(prefix));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later (running "
+                    + Runtime.version() + ")", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualThreads";
+    }
+}
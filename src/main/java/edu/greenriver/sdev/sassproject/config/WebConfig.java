@@ -0,0 +1,62 @@
+package edu.greenriver.sdev.sassproject.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Serves the bundled frontend. Files are precompressed when the app is built
+ * (gzip, and brotli when available), the precompressed copy matching the
+ * request's Accept-Encoding is served, and file bytes are held in memory.
+ * Build output under /static has the content hash in its name, so it is cached
+ * by clients as immutable; other files (index.html) are revalidated on each load.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+
+    private final long cacheMaxBytes;
+
+    /**
+     * @param cacheMaxBytes most bytes of frontend files held in memory, per location
+     */
+    public WebConfig(@Value("${sudoku.static.cache-max-bytes:33554432}") long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+    }
+
+    // Each location has its own cache, since request paths are relative to the location
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Hashed build output: a name always has the same content
+        registry.addResourceHandler("/static/**")
+                .addResourceLocations("classpath:/static/static/")
+                .setCacheControl(CacheControl.maxAge(IMMUTABLE_MAX_AGE).cachePublic().immutable())
+                .resourceChain(false)
+                .addResolver(new InMemoryResourceResolver(cacheMaxBytes))
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+
+        // Everything else (index.html, manifest, favicon)
+        registry.addResourceHandler("/**")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(false)
+                .addResolver(new InMemoryResourceResolver(cacheMaxBytes))
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+    }
+
+    @Override
+    public String toString() {
+        return "WebConfig";
+    }
+}
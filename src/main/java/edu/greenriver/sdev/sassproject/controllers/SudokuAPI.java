@@ -1,52 +1,185 @@
 package edu.greenriver.sdev.sassproject.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.greenriver.sdev.sassproject.models.BoardVerification;
+import edu.greenriver.sdev.sassproject.models.ConflictDelta;
+import edu.greenriver.sdev.sassproject.models.GameSession;
+import edu.greenriver.sdev.sassproject.models.ImportResult;
+import edu.greenriver.sdev.sassproject.models.Job;
+import edu.greenriver.sdev.sassproject.models.LeaderboardEntry;
+import edu.greenriver.sdev.sassproject.models.ServedPuzzle;
 import edu.greenriver.sdev.sassproject.models.User;
 import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.Difficulty;
+import edu.greenriver.sdev.sassproject.models.enums.JobType;
+import edu.greenriver.sdev.sassproject.models.enums.UserField;
+import edu.greenriver.sdev.sassproject.services.GameSessionService;
+import edu.greenriver.sdev.sassproject.services.JobService;
+import edu.greenriver.sdev.sassproject.services.PasswordCheckRejectedException;
 import edu.greenriver.sdev.sassproject.services.SudokuService;
 import edu.greenriver.sdev.sassproject.services.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeoutException;
 
 /**
  * API to handle sudoku board and user mappings
  * @author Patrick Lindsay
  * @version 1.0
  */
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {SudokuAPI.PUZZLE_ID_HEADER, SudokuAPI.PUZZLE_DIFFICULTY_HEADER,
+        HttpHeaders.ETAG, HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER, HttpHeaders.LINK})
 @RestController
 @RequestMapping("sudoku")
 public class SudokuAPI {
 
+    /**
+     * Response header holding the ID of a puzzle served at random.
+     */
+    public static final String PUZZLE_ID_HEADER = "X-Puzzle-Id";
+
+    /**
+     * Response header holding the difficulty a puzzle was served as.
+     */
+    public static final String PUZZLE_DIFFICULTY_HEADER = "X-Puzzle-Difficulty";
+
+    private static final int MAX_LEADERBOARD_LIMIT = 100;
+    private static final CacheControl PUZZLE_CACHE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final int MAX_PAGE_LIMIT = 1000;
+    private static final int MAX_VERIFY_BATCH = 1000;
+
     private SudokuService sudokuService;
     private UserService userService;
+    private GameSessionService sessionService;
+    private JobService jobService;
+    private ObjectMapper mapper;
 
     /**
      * Constructor for Sudoku API
      * @param sudokuService Service for handling sudoku game data
      * @param userService Service for handling user data
+     * @param sessionService Service for handling games in progress
+     * @param jobService Service for handling background solve and generate jobs
+     * @param mapper JSON mapper used to write streamed responses
      */
-    public SudokuAPI(SudokuService sudokuService, UserService userService) {
+    public SudokuAPI(SudokuService sudokuService, UserService userService, GameSessionService sessionService,
+                     JobService jobService, ObjectMapper mapper) {
         this.sudokuService = sudokuService;
         this.userService = userService;
+        this.sessionService = sessionService;
+        this.jobService = jobService;
+        this.mapper = mapper;
     }
 
     /**
-     * Method to get a solvable board of the specified size.
+     * Method to get a solvable board of the specified size. The puzzle's ID is
+     * returned in the X-Puzzle-Id header, and Content-Location links to the
+     * cacheable copy of the puzzle. When a difficulty is requested, the
+     * X-Puzzle-Difficulty header names the difficulty served, which is the
+     * closest one available if none of the requested difficulty is ready.
      * @param boardSize width/height of the board in the format WxH
+     * @param difficulty optional difficulty (easy, medium, hard, expert)
      * @return HTTP Response containing the board as an int array and status.
-     * Board is null if not found.
+     * Board is null if not found, 400 if the difficulty is not recognized.
      */
     @GetMapping("boards/{boardSize}")
-    public ResponseEntity<int[]> getBoard(@PathVariable String boardSize) {
-        return switch (boardSize) {
-            case "4x4" -> new ResponseEntity<>(sudokuService.getSolvableBoard(BoardSize.B4x4), HttpStatus.OK);
-            case "9x9" -> new ResponseEntity<>(sudokuService.getSolvableBoard(BoardSize.B9x9), HttpStatus.OK);
-            case "16x16" -> new ResponseEntity<>(sudokuService.getSolvableBoard(BoardSize.B16x16), HttpStatus.OK);
-            default -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
-        };
+    public ResponseEntity<int[]> getBoard(@PathVariable String boardSize,
+                                          @RequestParam(required = false) String difficulty) {
+        // Determine board size
+        BoardSize size = getSize(boardSize);
+        if (size == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+
+        // Any difficulty if none was requested
+        Difficulty level = null;
+        if (difficulty != null) {
+            level = Difficulty.fromName(difficulty);
+            if (level == null) {
+                return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        // Random on every request, so never cached; the ID links to the cacheable copy
+        ServedPuzzle puzzle = sudokuService.getPuzzle(size, level);
+        String id = sudokuService.getBoardId(size, puzzle.getCells());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(PUZZLE_ID_HEADER, id)
+                .header(HttpHeaders.CONTENT_LOCATION, "/sudoku/boards/" + boardSize + "/" + id);
+        if (puzzle.getDifficulty() != null) {
+            response.header(PUZZLE_DIFFICULTY_HEADER, puzzle.getDifficulty().getName().toLowerCase());
+        }
+        return response.body(puzzle.getCells());
+    }
+
+    /**
+     * Method to get a puzzle by its ID. A puzzle's ID is derived from its cells, so
+     * the response never changes: it is sent with a strong ETag (the ID) and may be
+     * cached for a year. Requests with a matching If-None-Match get a 304 before
+     * the board is decoded or checked.
+     * @param boardSize width/height of the board in the format WxH
+     * @param id ID of the puzzle (from the X-Puzzle-Id header of a random puzzle)
+     * @param request the request, for its If-None-Match header
+     * @return HTTP Response containing the board as an int array.
+     * 404 if the size is not recognized or the ID is not a puzzle of that size
+     * with a unique solution, 503 (not cached) if the solution could not be checked
+     */
+    @GetMapping("boards/{boardSize}/{id}")
+    public ResponseEntity<int[]> getBoardById(@PathVariable String boardSize, @PathVariable String id,
+                                              WebRequest request) {
+        BoardSize size = getSize(boardSize);
+        if (size == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        // The client already holds this response (checkNotModified sets the 304 and ETag)
+        if (request.checkNotModified(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(PUZZLE_CACHE)
+                    .build();
+        }
+        int[] board = sudokuService.decodeBoardId(size, id);
+        if (board == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        Boolean unique = sudokuService.hasUniqueSolution(size, board);
+        if (unique == null) {
+            // Busy or out of time: not an answer about the ID, so never cached
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .cacheControl(CacheControl.noStore())
+                    .build();
+        }
+        if (!unique) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok()
+                .eTag(id)
+                .cacheControl(PUZZLE_CACHE)
+                .body(board);
     }
 
     /**
@@ -62,19 +195,19 @@ public class SudokuAPI {
         BoardSize size = getSize(boardSize);
 
         // Validate that the size exists
-        if (boardSize == null) {
+        if (size == null) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
 
         // Validate board matches size and is valid
         boolean validBoard = sudokuService.validateBoard(size, board);
         // Verify board is complete
-        boolean verifiedBoard = sudokuService.verifyBoard(size, board);
-        // Attempt to add to collection
-        boolean added = sudokuService.addCompleteBoard(size, board);
+        boolean verifiedBoard = validBoard && sudokuService.verifyBoard(size, board);
 
         // Send response
-        if (validBoard && verifiedBoard) {
+        if (verifiedBoard) {
+            // Add to collection (ignored if an equivalent board is already stored)
+            sudokuService.addCompleteBoard(size, board);
             return new ResponseEntity<>(null, HttpStatus.CREATED);
         }
 
@@ -88,19 +221,447 @@ public class SudokuAPI {
     }
 
     /**
-     * Mapping to get all users.
-     * @return an array of all users
+     * Mapping to add many solved boards at once. The body is newline-delimited
+     * JSON (one board array per line) and is read as it arrives, not buffered.
+     * @param boardSize width/height of the boards in the format WxH
+     * @param canonical false to store boards as given and skip finding their
+     * canonical forms (much faster, but equivalent boards are not caught)
+     * @param body stream of newline-delimited boards
+     * @return HTTP Response containing counts of accepted, duplicate, and invalid boards
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping("boards/{boardSize}/solved/import")
+    public ResponseEntity<ImportResult> importBoards(@PathVariable String boardSize,
+                                                     @RequestParam(defaultValue = "true") boolean canonical,
+                                                     InputStream body) throws IOException {
+        BoardSize size = getSize(boardSize);
+        if (size == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(sudokuService.importCompleteBoards(size, body, canonical), HttpStatus.OK);
+    }
+
+    /**
+     * Mapping to verify a batch of boards of one size in parallel.
+     * Boards are only checked, not added to the collection. The body is read as
+     * it arrives and reading stops once it passes the batch limit, so an oversized
+     * batch is never held in memory.
+     * @param boardSize width/height of the boards in the format WxH
+     * @param body JSON array of arrays of integers representing sudoku boards
+     * @return HTTP Response containing the status and conflicting cells of each
+     * board, in the same order as the boards were sent. 400 if the body is not an
+     * array of boards, 413 if it holds more than 1000 boards
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping("boards/{boardSize}/verify")
+    public ResponseEntity<List<BoardVerification>> verifyBoards(@PathVariable String boardSize,
+                                                                InputStream body) throws IOException {
+        BoardSize size = getSize(boardSize);
+        if (size == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        List<int[]> boards;
+        try {
+            boards = readBoards(body, size);
+        } catch (JsonProcessingException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        if (boards == null) {
+            return new ResponseEntity<>(null, HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        return new ResponseEntity<>(sudokuService.checkBoards(size, boards), HttpStatus.OK);
+    }
+
+    // Method to read a JSON array of boards, null if it holds more than the batch limit.
+    // An entry that is not an array of integers, or has more cells than the size, is read
+    // as null (verified as invalid)
+    private List<int[]> readBoards(InputStream body, BoardSize size) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of boards");
+            }
+            List<int[]> boards = new ArrayList<>();
+            int[] cells = new int[size.getCellCount()];
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (boards.size() == MAX_VERIFY_BATCH) {
+                    return null;
+                }
+                if (token != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    boards.add(null);
+                    continue;
+                }
+                int count = 0;
+                boolean valid = true;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token != JsonToken.VALUE_NUMBER_INT || count == cells.length) {
+                        parser.skipChildren();
+                        valid = false;
+                    }
+                    else {
+                        cells[count++] = parser.getIntValue();
+                    }
+                }
+                boards.add(valid ? Arrays.copyOf(cells, count) : null);
+            }
+            return boards;
+        }
+    }
+
+    /**
+     * Mapping to count the essentially different solved boards in the collection.
+     * Boards that only differ by relabeling digits, transposing, or swapping rows,
+     * columns, bands, or stacks count once.
+     * @param boardSize width/height of the board in the format WxH
+     * @return HTTP Response containing the count, 404 if the size is not recognized
+     */
+    @GetMapping("boards/{boardSize}/solved/count")
+    public ResponseEntity<Integer> countSolvedBoards(@PathVariable String boardSize) {
+        BoardSize size = getSize(boardSize);
+        if (size == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(sudokuService.getCompleteBoardCount(size), HttpStatus.OK);
+    }
+
+    /**
+     * Mapping to solve a board.
+     * @param boardSize width/height of the board in the format WxH
+     * @param board array of integers representing a sudoku board (0 = empty cell)
+     * @return HTTP Response containing the solved board, 400 if the board is
+     * invalid or has no solution, 503 if the search ran out of time (with a Link
+     * to the background solve job, which allows a longer search)
+     */
+    @PostMapping("boards/{boardSize}/solve")
+    public ResponseEntity<int[]> solveBoard(@PathVariable String boardSize, @RequestBody int[] board) {
+        // Determine board size
+        BoardSize size = getSize(boardSize);
+        if (size == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+
+        // Validate board matches size and is valid
+        if (!sudokuService.validateBoard(size, board)) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+
+        int[] solution;
+        try {
+            solution = sudokuService.solveBoard(size, board);
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.LINK, "</sudoku/jobs/solve/" + boardSize + ">; rel=\"alternate\"")
+                    .build();
+        }
+        if (solution == null) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(solution, HttpStatus.OK);
+    }
+
+    /**
+     * Mapping to start a game held on the server.
+     * @param size width/height of the board in the format WxH
+     * @param difficulty optional difficulty (easy, medium, hard, expert)
+     * @param request the request, for the client's address
+     * @return HTTP Response containing the new session, 404 if the size is not
+     * recognized, 400 if the difficulty is not recognized, 503 if there are too many sessions
+     */
+    @PostMapping("sessions")
+    public ResponseEntity<GameSession> createSession(@RequestParam String size,
+                                                     @RequestParam(required = false) String difficulty,
+                                                     HttpServletRequest request) {
+        BoardSize boardSize = getSize(size);
+        if (boardSize == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        Difficulty level = null;
+        if (difficulty != null) {
+            level = Difficulty.fromName(difficulty);
+            if (level == null) {
+                return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        GameSession session = sessionService.createSession(boardSize, level, request.getRemoteAddr());
+        if (session == null) {
+            return new ResponseEntity<>(null, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return new ResponseEntity<>(session, HttpStatus.CREATED);
+    }
+
+    /**
+     * Mapping to get the current state of a game.
+     * @param id unique identifier of the session
+     * @return HTTP Response containing the session, 404 if it does not exist
+     */
+    @GetMapping("sessions/{id}")
+    public ResponseEntity<GameSession> getSession(@PathVariable String id) {
+        GameSession session = sessionService.getSession(id);
+        if (session == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(session, HttpStatus.OK);
+    }
+
+    /**
+     * Mapping to play a move: set one cell of a game in progress.
+     * @param id unique identifier of the session
+     * @param index cell location on the board
+     * @param value value to store in the cell (0 clears it)
+     * @return HTTP Response containing the cells that started or stopped conflicting,
+     * 404 if the session does not exist, 400 if the cell is not on the board or is a clue
+     */
+    @PatchMapping("sessions/{id}/cells/{index}")
+    public ResponseEntity<ConflictDelta> playMove(@PathVariable String id, @PathVariable int index,
+                                                  @RequestBody int value) {
+        GameSession session = sessionService.getSession(id);
+        if (session == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        try {
+            return new ResponseEntity<>(session.play(index, value), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Mapping to end a game.
+     * @param id unique identifier of the session
+     * @return HTTP Response containing the ended session, 404 if it does not exist
+     */
+    @DeleteMapping("sessions/{id}")
+    public ResponseEntity<GameSession> endSession(@PathVariable String id) {
+        GameSession session = sessionService.removeSession(id);
+        if (session == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(session, HttpStatus.OK);
+    }
+
+    /**
+     * Mapping to solve a board in the background. Returns at once; follow the
+     * job at the Location header or its events stream.
+     * @param boardSize width/height of the board in the format WxH
+     * @param timeoutMs optional time the search may take (capped by the server)
+     * @param board array of integers representing a sudoku board (0 = empty cell)
+     * @return HTTP Response containing the queued job (202), 404 if the size is not
+     * recognized, 400 if the board is invalid, 503 if there are too many jobs
+     */
+    @PostMapping("jobs/solve/{boardSize}")
+    public ResponseEntity<Job> submitSolve(@PathVariable String boardSize,
+                                           @RequestParam(defaultValue = "0") long timeoutMs,
+                                           @RequestBody int[] board) {
+        BoardSize size = getSize(boardSize);
+        if (size == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        if (!sudokuService.validateBoard(size, board)) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        return accepted(jobService.submit(JobType.SOLVE, size, board, timeoutMs));
+    }
+
+    /**
+     * Mapping to generate a puzzle in the background. Returns at once; follow the
+     * job at the Location header or its events stream.
+     * @param boardSize width/height of the board in the format WxH
+     * @param timeoutMs optional time generating may take (capped by the server)
+     * @return HTTP Response containing the queued job (202), 404 if the size is not
+     * recognized, 503 if there are too many jobs
+     */
+    @PostMapping("jobs/generate/{boardSize}")
+    public ResponseEntity<Job> submitGenerate(@PathVariable String boardSize,
+                                              @RequestParam(defaultValue = "0") long timeoutMs) {
+        BoardSize size = getSize(boardSize);
+        if (size == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return accepted(jobService.submit(JobType.GENERATE, size, null, timeoutMs));
+    }
+
+    /**
+     * Mapping to get the state of a job, with its result once done.
+     * @param id unique identifier of the job
+     * @return HTTP Response containing the job, 404 if it does not exist
+     */
+    @GetMapping("jobs/{id}")
+    public ResponseEntity<Job> getJob(@PathVariable String id) {
+        Job job = jobService.getJob(id);
+        if (job == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(job, HttpStatus.OK);
+    }
+
+    /**
+     * Mapping to follow a job as Server-Sent Events: "progress" events while it
+     * runs and one "done" event, holding the job, when it finishes.
+     * @param id unique identifier of the job
+     * @return HTTP Response containing the event stream, 404 if the job does not exist
+     */
+    @GetMapping(value = "jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> followJob(@PathVariable String id) {
+        SseEmitter emitter = jobService.subscribe(id);
+        if (emitter == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+
+    /**
+     * Mapping to cancel a job.
+     * @param id unique identifier of the job
+     * @return HTTP Response containing the job, 404 if it does not exist
+     */
+    @DeleteMapping("jobs/{id}")
+    public ResponseEntity<Job> cancelJob(@PathVariable String id) {
+        Job job = jobService.cancel(id);
+        if (job == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(job, HttpStatus.OK);
+    }
+
+    // Method to answer a job submission
+    private ResponseEntity<Job> accepted(Job job) {
+        if (job == null) {
+            return new ResponseEntity<>(null, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/sudoku/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * Mapping to get the users with the most wins.
+     * @param size optional board size (4x4, 9x9, 16x16) to rank by; total wins if absent
+     * @param limit most users to list (at most 100)
+     * @return HTTP response containing the users, most wins first. 400 if the size is not recognized
+     */
+    @GetMapping("leaderboard")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(@RequestParam(required = false) String size,
+                                                                 @RequestParam(defaultValue = "10") int limit) {
+        BoardSize boardSize = size == null ? null : getSize(size);
+        if (size != null && boardSize == null) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        int cappedLimit = Math.max(0, Math.min(limit, MAX_LEADERBOARD_LIMIT));
+        return new ResponseEntity<>(userService.getLeaderboard(boardSize, cappedLimit), HttpStatus.OK);
+    }
+
+    /**
+     * Mapping to get a user's place on the leaderboard.
+     * @param username unique name used to identify a user
+     * @param size optional board size (4x4, 9x9, 16x16) to rank by; total wins if absent
+     * @return HTTP response containing the user's place. 400 if the size is not recognized,
+     * 404 if the user doesn't exist
+     */
+    @GetMapping("leaderboard/{username}")
+    public ResponseEntity<LeaderboardEntry> getLeaderboardEntry(@PathVariable String username,
+                                                                @RequestParam(required = false) String size) {
+        BoardSize boardSize = size == null ? null : getSize(size);
+        if (size != null && boardSize == null) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        LeaderboardEntry entry = userService.getLeaderboardEntry(username, boardSize);
+        if (entry == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(entry, HttpStatus.OK);
+    }
+
+    /**
+     * Mapping to get one page of users in username order, limited to the requested
+     * fields. Users are written to the response as they are read, never collected
+     * first. The response is {"users": [...], "nextCursor": "..."}; pass nextCursor
+     * back as the cursor to get the next page (it is null after the last page).
+     * @param limit most users in the page (at most 1000, 100 if absent)
+     * @param cursor nextCursor of the previous page, absent for the first page
+     * @param fields comma-separated fields to include (username, rank, wins, gamesWon,
+     *               preferences, settings); username, rank, and wins if absent
+     * @return HTTP response streaming the page, 400 if a field is not recognized
      */
     @GetMapping("users")
-    public ResponseEntity<User[]> getAllUsers() {
-        return new ResponseEntity<>(userService.getAllUsers(), HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> getUserPage(@RequestParam(defaultValue = "100") int limit,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) String fields) {
+        Set<UserField> projection = fields == null
+                ? EnumSet.of(UserField.USERNAME, UserField.RANK, UserField.WINS)
+                : EnumSet.noneOf(UserField.class);
+        if (fields != null) {
+            for (String name : fields.split(",")) {
+                UserField field = UserField.fromName(name.trim());
+                if (field == null) {
+                    return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+                }
+                projection.add(field);
+            }
+        }
+        int pageLimit = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+
+        StreamingResponseBody body = output -> {
+            JsonGenerator generator = mapper.getFactory().createGenerator(output);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("users");
+            String nextCursor;
+            try {
+                nextCursor = userService.forEachUserPage(cursor, pageLimit,
+                        user -> writeUser(generator, user, projection));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            generator.writeStringField("nextCursor", nextCursor);
+            generator.writeEndObject();
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Method to write the requested fields of a user
+    private void writeUser(JsonGenerator generator, User user, Set<UserField> fields) {
+        try {
+            generator.writeStartObject();
+            for (UserField field : fields) {
+                generator.writeFieldName(field.getName());
+                switch (field) {
+                    case USERNAME -> generator.writeString(user.getUsername());
+                    case RANK -> generator.writeObject(user.getUserRank());
+                    case WINS -> generator.writeNumber(user.getTotalGamesWon());
+                    case GAMES_WON -> generator.writeObject(user.getGamesWon());
+                    case PREFERENCES -> generator.writeObject(user.getPreferences());
+                    case SETTINGS -> generator.writeObject(user.getSettings());
+                }
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Mapping to get the user a token belongs to, without the username.
+     * @param token token issued when the user logged in
+     * @return HTTP response containing the User, 404 if the token is not current
+     */
+    @GetMapping("users/me")
+    public ResponseEntity<User> getCurrentUser(@RequestParam String token) {
+        User requestedUser = userService.getUserByToken(token);
+        if (requestedUser == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(requestedUser, HttpStatus.OK);
     }
 
     /**
      * Mapping to get a specified user via the path.
      * @param username unique name used to identify a user
      * @param token User password (login) or token (logged in request)
-     * @return HTTP response containing User if found, 404 if user doesn't exist
+     * @return HTTP response containing User if found, 404 if user doesn't exist,
+     * 429 if the password could not be checked yet
      */
     @GetMapping("users/{username}")
     public ResponseEntity<User> getUser(@PathVariable String username, @RequestParam String token) {
@@ -125,7 +686,7 @@ public class SudokuAPI {
      * @param username Unique identifier for a new User
      * @param newUser User object containing user data
      * @return if username is unused, HTTP response containing created user,
-     * otherwise 400 BAD REQUEST
+     * otherwise 400 BAD REQUEST (429 if the password could not be hashed yet)
      */
     @PostMapping("users/{username}")
     public ResponseEntity<User> addUser(@PathVariable String username, @RequestBody User newUser) {
@@ -144,7 +705,7 @@ public class SudokuAPI {
      * Mapping to update an existing user.
      * @param username Unique identifier associated with the user to update
      * @param updatedUser User object containing changes
-     * @return updated user object if user exists
+     * @return updated user object if user exists, 429 if the password could not be checked yet
      */
     @PutMapping("users/{username}")
     public ResponseEntity<User> updateUser(@PathVariable String username, @RequestBody User updatedUser) {
@@ -171,6 +732,7 @@ public class SudokuAPI {
      * @param username Unique identifier for a user
      * @param deleteUser User object to be deleted
      * @return The deleted user object if successful, otherwise 400 or 404
+     * (429 if the password could not be checked yet)
      */
     @DeleteMapping("users/{username}")
     public ResponseEntity<User> deleteUser(@PathVariable String username, @RequestBody User deleteUser) {
@@ -197,6 +759,20 @@ public class SudokuAPI {
         return new ResponseEntity<>(deletedUser, HttpStatus.OK);
     }
 
+    /**
+     * Answers a password check that could not run because too many checks for the
+     * same user were already running. The password was not judged, so this is not
+     * a 400.
+     * @param e the rejected check
+     * @return 429 Too Many Requests, with Retry-After
+     */
+    @ExceptionHandler(PasswordCheckRejectedException.class)
+    public ResponseEntity<Void> passwordCheckRejected(PasswordCheckRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
     private BoardSize getSize(String size) {
         return switch (size) {
             case "4x4" -> BoardSize.B4x4;
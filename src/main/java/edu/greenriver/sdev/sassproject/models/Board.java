@@ -4,21 +4,32 @@ import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
 
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
 
 /**
  * The Board stores and maintains the numbers on the game board.
- * Evaluates for win condition when potentially met.
+ * Evaluates for win condition when potentially met. The initial clues are kept
+ * packed (see PackedBoard) since they never change.
+ * <p>
+ * Conflicts are tracked incrementally: each row, column, and group counts how
+ * many of its cells hold each value, and a cell conflicts when any of its units
+ * holds its value more than once. Changing a cell only updates its three counts
+ * and re-checks the peers holding the old or new value, so a move costs O(peers).
  * @author Patrick Lindsay
  * @version 1.0
  */
 public class Board {
     private final BoardSize size;
-    private final int[] initialData;
+    private final PackedBoard initialData;
     private int[] gameData;
-    private SudokuGraph verifier;
-    private HashSet<Conflict> conflicts;
+
+    // Conflict state, kept up to date by setCell
+    private final int[][] rowCounts;        // [row][value] -> cells holding value
+    private final int[][] columnCounts;     // [column][value] -> cells holding value
+    private final int[][] groupCounts;      // [group][value] -> cells holding value
+    private final boolean[] conflicting;    // [cell] -> cell conflicts with a peer
+    private int conflictCount;
+    private int filledCount;
 
     /**
      * Constructor for a random new board of given size.
@@ -35,10 +46,28 @@ public class Board {
      */
     public Board(BoardSize size, int[] initialData) {
         this.size = size;
-        this.initialData = initialData;
+        this.initialData = PackedBoard.of(size, initialData);
         this.gameData = Arrays.copyOf(initialData, size.getCellCount());
-        this.verifier = new SudokuGraph(size);
-        this.conflicts = new HashSet<>();
+        this.rowCounts = new int[size.getDimensions()][size.getDimensions() + 1];
+        this.columnCounts = new int[size.getDimensions()][size.getDimensions() + 1];
+        this.groupCounts = new int[size.getDimensions()][size.getDimensions() + 1];
+        this.conflicting = new boolean[size.getCellCount()];
+        evaluateForConflicts();
+    }
+
+    /**
+     * Constructor for creating a board object from stored initial data.
+     * @param initialData packed incomplete sudoku board data
+     */
+    public Board(PackedBoard initialData) {
+        this.size = initialData.getSize();
+        this.initialData = initialData;
+        this.gameData = initialData.toArray();
+        this.rowCounts = new int[size.getDimensions()][size.getDimensions() + 1];
+        this.columnCounts = new int[size.getDimensions()][size.getDimensions() + 1];
+        this.groupCounts = new int[size.getDimensions()][size.getDimensions() + 1];
+        this.conflicting = new boolean[size.getCellCount()];
+        evaluateForConflicts();
     }
 
     /**
@@ -47,7 +76,7 @@ public class Board {
      * @return an incomplete solvable sudoku board of the specified size as an array
      */
     public static int[] generateInitialBoard(BoardSize size) {
-        return new int[0];
+        return new PuzzleGenerator().generate(size);
     }
 
 
@@ -55,10 +84,33 @@ public class Board {
 
     /**
      * Method to get the data for all cells on the board
-     * @return Array of integers representing game data
+     * @return copy of the array of integers representing game data
      */
     public int[] getGameData() {
-        return this.gameData;
+        return this.gameData.clone();
+    }
+
+    /**
+     * @param location cell location on the board
+     * @return value in the cell (0 = empty)
+     */
+    public int getCell(int location) {
+        return this.gameData[location];
+    }
+
+    /**
+     * @param location cell location on the board
+     * @return true if the cell is one of the initial clues (not modifiable)
+     */
+    public boolean isClue(int location) {
+        return initialData.get(location) != 0;
+    }
+
+    /**
+     * @return the initial clues of this board
+     */
+    public PackedBoard getInitialData() {
+        return this.initialData;
     }
 
     /**
@@ -74,12 +126,13 @@ public class Board {
      * @return set of cells which have conflicts
      */
     public Set<Integer> getConflictingCells() {
-        HashSet<Integer> conflictCells = new HashSet<>();
-        for (Conflict conflict : conflicts) {
-            conflictCells.add(conflict.firstIndex);
-            conflictCells.add(conflict.secondIndex);
+        Set<Integer> cells = new HashSet<>();
+        for (int cell = 0; cell < conflicting.length; cell++) {
+            if (conflicting[cell]) {
+                cells.add(cell);
+            }
         }
-        return conflictCells;
+        return cells;
     }
 
 
@@ -87,11 +140,14 @@ public class Board {
 
     /**
      * Method to update a cell on the board. Called when the player types a number
-     * in a cell on the board
+     * in a cell on the board. Only the cell and its peers are re-checked.
      * @param location integer representing cell location on the board and in game-data array
-     * @param value value to store in the cell
+     * @param value value to store in the cell (out of range values clear the cell)
+     * @return cells that started or stopped conflicting because of this move,
+     * and whether the board is now solved
+     * @throws IllegalArgumentException if the location is not on the board or is an initial clue
      */
-    public void setCell(int location, int value) {
+    public ConflictDelta setCell(int location, int value) {
         // Validate value
         if (value < 0 || value > size.getDimensions()) {
             // Value is out of bounds
@@ -101,43 +157,60 @@ public class Board {
         if (location < 0 || location >= size.getCellCount()) {
             throw new IllegalArgumentException("Location not on board");
         }
-
         // Check if the cell is in the initial set (not modifiable)
-        if (initialData[location] != 0) {
-            gameData[location] = value;
+        if (isClue(location)) {
+            throw new IllegalArgumentException("Location is an initial clue");
+        }
+
+        ConflictDelta delta = new ConflictDelta();
+        int oldValue = gameData[location];
+        if (oldValue == value) {
+            delta.setSolved(checkForWin());
+            return delta;
+        }
 
-            if (value != 0) {
-                // Check for conflicts (if value != 0)
-                evaluateCellConflicts(location);
+        // Move the cell's value in its unit counts
+        count(location, oldValue, -1);
+        gameData[location] = value;
+        count(location, value, 1);
+        filledCount += (value != 0 ? 1 : 0) - (oldValue != 0 ? 1 : 0);
+
+        // Only the cell and peers holding the old or new value can change
+        recheck(location, delta);
+        for (int peer : size.getPeers(location)) {
+            int peerValue = gameData[peer];
+            if (peerValue != 0 && (peerValue == oldValue || peerValue == value)) {
+                recheck(peer, delta);
             }
         }
+        delta.setSolved(checkForWin());
+        return delta;
     }
 
     ////   OTHER   ////
 
     /**
      * Method to check each cell on the board for conflicts.
-     * EXPENSIVE.
+     * Rebuilds the unit counts in a single pass over the board.
      */
     public void evaluateForConflicts() {
-        // Loop over the cells on the board
-        for (int location = 0; location < size.getCellCount(); location++) {
-            // Check all possible conflicts for each cell
-            evaluateCellConflicts(location);
+        for (int unit = 0; unit < size.getDimensions(); unit++) {
+            Arrays.fill(rowCounts[unit], 0);
+            Arrays.fill(columnCounts[unit], 0);
+            Arrays.fill(groupCounts[unit], 0);
         }
-    }
-
-    private void evaluateCellConflicts(int location) {
-        for (int conflictIndex : verifier.getConflictingCells(location)) {
-            if (gameData[location] == gameData[conflictIndex]) {
-                // Conflict Found
-                conflicts.add(new Conflict(location, conflictIndex));
-            } else {
-                // Check for Conflict to clear
-                Conflict testConflict = new Conflict(location, conflictIndex);
-                if (conflicts.contains(testConflict)) {
-                    conflicts.remove((testConflict));
-                }
+        filledCount = 0;
+        for (int cell = 0; cell < gameData.length; cell++) {
+            count(cell, gameData[cell], 1);
+            if (gameData[cell] != 0) {
+                filledCount++;
+            }
+        }
+        conflictCount = 0;
+        for (int cell = 0; cell < gameData.length; cell++) {
+            conflicting[cell] = hasConflict(cell);
+            if (conflicting[cell]) {
+                conflictCount++;
             }
         }
     }
@@ -147,16 +220,42 @@ public class Board {
      * @return true if the Sudoku board is valid, false otherwise
      */
     public boolean checkForWin() {
-        // Check for conflicts
-        evaluateForConflicts();
+        // Every cell filled with no conflicts
+        return conflictCount == 0 && filledCount == size.getCellCount();
+    }
 
-        // Evaluate win conditions
-        boolean noConflicts = conflicts.isEmpty();
-        boolean validBoard = gameData.length == size.getCellCount();
-        boolean allCellsFilled = Arrays.stream(gameData).noneMatch(cellValue ->
-                (cellValue <= 0) || (cellValue > size.getDimensions()));
+    // Method to add to (or remove from) the unit counts of a cell's value
+    private void count(int cell, int value, int change) {
+        if (value == 0) {
+            return;
+        }
+        rowCounts[size.getRow(cell)][value] += change;
+        columnCounts[size.getColumn(cell)][value] += change;
+        groupCounts[size.getGroup(cell)][value] += change;
+    }
+
+    private boolean hasConflict(int cell) {
+        int value = gameData[cell];
+        return value != 0 && (rowCounts[size.getRow(cell)][value] > 1
+                || columnCounts[size.getColumn(cell)][value] > 1
+                || groupCounts[size.getGroup(cell)][value] > 1);
+    }
 
-        return noConflicts && validBoard && allCellsFilled;
+    // Method to update a cell's conflict flag, recording the change
+    private void recheck(int cell, ConflictDelta delta) {
+        boolean now = hasConflict(cell);
+        if (now == conflicting[cell]) {
+            return;
+        }
+        conflicting[cell] = now;
+        if (now) {
+            conflictCount++;
+            delta.added(cell);
+        }
+        else {
+            conflictCount--;
+            delta.cleared(cell);
+        }
     }
 
     @Override
@@ -168,49 +267,12 @@ public class Board {
             return false;
         }
         Board board = (Board) otherBoard;
-        return size == board.size && Arrays.equals(initialData, board.initialData);
+        return initialData.equals(board.initialData);
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(size);
-        result = 31 * result + Arrays.hashCode(initialData);
-        return result;
-    }
-
-    // Private class to track conflicts between pairs of cells
-    private static class Conflict {
-        private int firstIndex;
-        private int secondIndex;
-
-        public Conflict(int firstIndex, int secondIndex) {
-            this.firstIndex = firstIndex;
-            this.secondIndex = secondIndex;
-        }
-
-        @Override
-        public boolean equals(Object otherConflict) {
-            if (this == otherConflict) {
-                return true;
-            }
-            if (otherConflict == null || getClass() != otherConflict.getClass()) {
-                return false;
-            }
-            Conflict conflict = (Conflict) otherConflict;
-            return (firstIndex == conflict.firstIndex && secondIndex == conflict.secondIndex) ||
-                    (firstIndex == conflict.secondIndex && secondIndex == conflict.firstIndex);
-        }
-
-        @Override
-        public int hashCode() {
-            // XOR the hash of each so that they result in the same code (order independent)
-            return Objects.hash(firstIndex, secondIndex) ^ Objects.hash(secondIndex, firstIndex);
-        }
-
-        @Override
-        public String toString() {
-            return "Conflict{" + firstIndex + ", " + secondIndex + '}';
-        }
+        return initialData.hashCode();
     }
 
     @Override
@@ -0,0 +1,114 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads newline-delimited boards (one JSON array of integers per line, such as
+ * [1,2,3,4,...]) from a stream, one board at a time. Bytes are parsed straight
+ * out of a fixed buffer without building strings, so memory stays bounded no
+ * matter how long the stream is. A malformed line, or one holding more values
+ * than any board can, is read as an empty board so callers can count it as invalid.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class BoardStreamReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_VALUE = 1 << 16;
+    private static final int[] MALFORMED = new int[0];
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final int[] values;
+
+    /**
+     * @param in stream of newline-delimited boards
+     * @param maxCells most cells a board on the stream may have
+     */
+    public BoardStreamReader(InputStream in, int maxCells) {
+        this.in = in;
+        this.values = new int[maxCells];
+    }
+
+    /**
+     * Method to read the next board. Blank lines are skipped.
+     * @return the cell values of the next board, an empty array if the line
+     * is malformed, or null at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    public int[] next() throws IOException {
+        int count;
+        boolean malformed;
+        boolean blank;
+        int b;
+        do {
+            count = 0;
+            malformed = false;
+            blank = true;
+            int value = -1;     // value being parsed, -1 between values
+
+            while ((b = read()) != -1 && b != '\n') {
+                if (b >= '0' && b <= '9') {
+                    value = (value < 0 ? 0 : value * 10) + (b - '0');
+                    if (value > MAX_VALUE) {
+                        malformed = true;
+                        value = 0;
+                    }
+                    blank = false;
+                    continue;
+                }
+                if (value >= 0) {
+                    malformed |= !store(count++, value);
+                    value = -1;
+                }
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    blank = false;
+                    malformed |= b != ',' && b != '[' && b != ']';
+                }
+            }
+            if (value >= 0) {
+                malformed |= !store(count++, value);
+            }
+        } while (blank && b != -1);     // skip empty lines
+
+        if (blank) {
+            // End of stream
+            return null;
+        }
+        if (malformed) {
+            return MALFORMED;
+        }
+        int[] board = new int[count];
+        System.arraycopy(values, 0, board, 0, count);
+        return board;
+    }
+
+    // Method to store a parsed value, false if the line has more values than any board
+    private boolean store(int index, int value) {
+        if (index >= values.length) {
+            return false;
+        }
+        values[index] = value;
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public String toString() {
+        return "BoardStreamReader";
+    }
+}
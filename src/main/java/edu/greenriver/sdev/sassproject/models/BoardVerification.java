@@ -0,0 +1,45 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardStatus;
+
+import java.util.Set;
+
+/**
+ * Result of verifying one submitted board: whether it is solved and, if it
+ * is not, which cells conflict.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class BoardVerification {
+    private final BoardStatus status;
+    private final Set<Integer> conflictingCells;
+
+    /**
+     * @param status outcome of the verification
+     * @param conflictingCells cells in conflict, or null if the board is invalid
+     */
+    public BoardVerification(BoardStatus status, Set<Integer> conflictingCells) {
+        this.status = status;
+        this.conflictingCells = conflictingCells;
+    }
+
+    /**
+     * @return outcome of the verification
+     */
+    public BoardStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return cells that conflict with at least one other cell
+     * (empty if solved, null if the board is invalid)
+     */
+    public Set<Integer> getConflictingCells() {
+        return conflictingCells;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardVerification{" + status + ", conflicts=" + conflictingCells + "}";
+    }
+}
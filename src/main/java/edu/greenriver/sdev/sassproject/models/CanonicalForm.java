@@ -0,0 +1,322 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+
+import java.util.Arrays;
+
+/**
+ * Finds the canonical form of a completed board: the lexicographically smallest
+ * board reachable by the sudoku symmetries (transposition, band and stack swaps,
+ * row swaps within a band, column swaps within a stack, and digit relabeling).
+ * Two solutions are equivalent exactly when their canonical forms are equal.
+ * <p>
+ * Once the top row is chosen, relabeling always turns it into 1..n, so the
+ * second row decides the order. With the top row r0 and second row R fixed, the
+ * relabeled second row is the column permutation "where does R's value sit in r0"
+ * conjugated by the column order, and its smallest form is found with a
+ * depth-first search that places each referenced column at the earliest free
+ * position and prunes as soon as it falls behind the best board so far. The
+ * remaining rows are then placed greedily (sorted within bands, bands sorted).
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public final class CanonicalForm {
+    private final int dimensions;
+    private final int root;
+
+    // Grid being searched (transposed or not) and its chosen top and second rows
+    private int[] grid;
+    private int topRow;
+    private int secondRow;
+    private final int[] target;         // [column] -> column where the top row has the second row's value
+
+    // Partial column order
+    private final int[] positionColumn; // [position] -> column, or -1
+    private final int[] columnPosition; // [column] -> position, or -1
+    private final int[] blockStack;     // [block of positions] -> stack of columns, or -1
+    private final int[] stackBlock;     // [stack] -> block, or -1
+
+    private final int[] current;        // [position] -> relabeled second row value
+    private int[] best;
+    private int bestVersion;            // bumped whenever best changes
+
+    private CanonicalForm(BoardSize size) {
+        this.dimensions = size.getDimensions();
+        this.root = size.getRoot();
+        this.target = new int[dimensions];
+        this.positionColumn = new int[dimensions];
+        this.columnPosition = new int[dimensions];
+        this.blockStack = new int[root];
+        this.stackBlock = new int[root];
+        this.current = new int[dimensions];
+    }
+
+    /**
+     * Method to find the canonical form of a completed board.
+     * @param size size of the board
+     * @param board completed board with no conflicts
+     * @return new array holding the smallest equivalent board
+     * @throws IllegalArgumentException if the board is not a complete solution of the given size
+     */
+    public static int[] canonicalize(BoardSize size, int[] board) {
+        if (board.length != size.getCellCount()) {
+            throw new IllegalArgumentException("Board does not match size");
+        }
+        for (int value : board) {
+            if (value < 1 || value > size.getDimensions()) {
+                throw new IllegalArgumentException("Board is not complete");
+            }
+        }
+        if (ConflictDetector.hasConflicts(size, board)) {
+            throw new IllegalArgumentException("Board is not a solution");
+        }
+
+        CanonicalForm search = new CanonicalForm(size);
+        search.searchGrid(board);
+        search.searchGrid(search.transpose(board));
+        return search.best;
+    }
+
+    // Method to try every top and second row of a grid
+    private void searchGrid(int[] grid) {
+        this.grid = grid;
+        int n = dimensions;
+        int[] valueColumn = new int[n + 1];
+
+        for (int top = 0; top < n; top++) {
+            for (int col = 0; col < n; col++) {
+                valueColumn[grid[top * n + col]] = col;
+            }
+            // Second row must come from the same band as the top row
+            int bandStart = (top / root) * root;
+            for (int second = bandStart; second < bandStart + root; second++) {
+                if (second == top) {
+                    continue;
+                }
+                for (int col = 0; col < n; col++) {
+                    target[col] = valueColumn[grid[second * n + col]];
+                }
+                this.topRow = top;
+                this.secondRow = second;
+
+                Arrays.fill(positionColumn, -1);
+                Arrays.fill(columnPosition, -1);
+                Arrays.fill(blockStack, -1);
+                Arrays.fill(stackBlock, -1);
+                search(0, best != null, bestVersion);
+            }
+        }
+    }
+
+    // Method to choose the column for each position in turn
+    // (tight = second row so far equals the best board's, as of the given version of best)
+    private void search(int position, boolean tight, int version) {
+        if (version != bestVersion) {
+            // Best changed below an earlier position, compare the prefix again
+            int result = Arrays.compare(current, 0, position, best, dimensions, dimensions + position);
+            if (result > 0) {
+                return;
+            }
+            tight = result == 0;
+            version = bestVersion;
+        }
+        if (position == dimensions) {
+            offer(buildBoard());
+            return;
+        }
+        if (positionColumn[position] != -1) {
+            extend(position, tight, version);
+            return;
+        }
+
+        int block = position / root;
+        int mappedStack = blockStack[block];
+        for (int stack = 0; stack < root; stack++) {
+            // Use the stack already mapped to this block, or any stack not yet mapped
+            boolean mapsBlock = mappedStack == -1;
+            if (mapsBlock ? stackBlock[stack] != -1 : stack != mappedStack) {
+                continue;
+            }
+            for (int col = stack * root; col < (stack + 1) * root; col++) {
+                if (columnPosition[col] != -1) {
+                    continue;
+                }
+                if (mapsBlock) {
+                    map(block, stack);
+                }
+                assign(position, col);
+                extend(position, tight, version);
+                unassign(position);
+                if (mapsBlock) {
+                    unmap(block);
+                }
+            }
+        }
+    }
+
+    // Method to place the column referenced by this position, then move to the next position
+    private void extend(int position, boolean tight, int version) {
+        int referenced = target[positionColumn[position]];
+        int placed = -1;
+        int mappedBlock = -1;
+
+        if (columnPosition[referenced] == -1) {
+            // Put it at the earliest free position it is allowed to take
+            int stack = referenced / root;
+            int block = stackBlock[stack];
+            if (block == -1) {
+                block = firstUnmappedBlock();
+                map(block, stack);
+                mappedBlock = block;
+            }
+            placed = firstFreePosition(block);
+            assign(placed, referenced);
+        }
+
+        int value = columnPosition[referenced] + 1;
+        int bestValue = tight ? best[dimensions + position] : Integer.MAX_VALUE;
+        if (value <= bestValue) {
+            current[position] = value;
+            search(position + 1, tight && value == bestValue, version);
+        }
+
+        if (placed != -1) {
+            unassign(placed);
+        }
+        if (mappedBlock != -1) {
+            unmap(mappedBlock);
+        }
+    }
+
+    // Method to build the relabeled board for the current column order
+    private int[] buildBoard() {
+        int n = dimensions;
+
+        // Relabel so the top row reads 1..n
+        int[] label = new int[n + 1];
+        for (int position = 0; position < n; position++) {
+            label[grid[topRow * n + positionColumn[position]]] = position + 1;
+        }
+        int[][] rows = new int[n][n];
+        for (int row = 0; row < n; row++) {
+            for (int position = 0; position < n; position++) {
+                rows[row][position] = label[grid[row * n + positionColumn[position]]];
+            }
+        }
+
+        // Rest of the top band in ascending order
+        int topBand = topRow / root;
+        int[][] bandRest = new int[root - 2][];
+        int count = 0;
+        for (int row = topBand * root; row < (topBand + 1) * root; row++) {
+            if (row != topRow && row != secondRow) {
+                bandRest[count++] = rows[row];
+            }
+        }
+        Arrays.sort(bandRest, Arrays::compare);
+
+        // Other bands with their rows sorted, then sorted by content
+        int[][][] bands = new int[root - 1][][];
+        count = 0;
+        for (int band = 0; band < root; band++) {
+            if (band == topBand) {
+                continue;
+            }
+            int[][] bandRows = Arrays.copyOfRange(rows, band * root, (band + 1) * root);
+            Arrays.sort(bandRows, Arrays::compare);
+            bands[count++] = bandRows;
+        }
+        Arrays.sort(bands, CanonicalForm::compareBands);
+
+        int[] board = new int[n * n];
+        int offset = 0;
+        System.arraycopy(rows[topRow], 0, board, offset, n);
+        offset += n;
+        System.arraycopy(rows[secondRow], 0, board, offset, n);
+        offset += n;
+        for (int[] row : bandRest) {
+            System.arraycopy(row, 0, board, offset, n);
+            offset += n;
+        }
+        for (int[][] band : bands) {
+            for (int[] row : band) {
+                System.arraycopy(row, 0, board, offset, n);
+                offset += n;
+            }
+        }
+        return board;
+    }
+
+    private void offer(int[] board) {
+        if (best == null || Arrays.compare(board, best) < 0) {
+            best = board;
+            bestVersion++;
+        }
+    }
+
+    private static int compareBands(int[][] first, int[][] second) {
+        for (int i = 0; i < first.length; i++) {
+            int result = Arrays.compare(first[i], second[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    ////   COLUMN ORDER   ////
+
+    private void assign(int position, int col) {
+        positionColumn[position] = col;
+        columnPosition[col] = position;
+    }
+
+    private void unassign(int position) {
+        columnPosition[positionColumn[position]] = -1;
+        positionColumn[position] = -1;
+    }
+
+    private void map(int block, int stack) {
+        blockStack[block] = stack;
+        stackBlock[stack] = block;
+    }
+
+    private void unmap(int block) {
+        stackBlock[blockStack[block]] = -1;
+        blockStack[block] = -1;
+    }
+
+    private int firstUnmappedBlock() {
+        for (int block = 0; block < root; block++) {
+            if (blockStack[block] == -1) {
+                return block;
+            }
+        }
+        throw new IllegalStateException("Every block is mapped");
+    }
+
+    private int firstFreePosition(int block) {
+        for (int position = block * root; position < (block + 1) * root; position++) {
+            if (positionColumn[position] == -1) {
+                return position;
+            }
+        }
+        throw new IllegalStateException("Block is full");
+    }
+
+    private int[] transpose(int[] board) {
+        int n = dimensions;
+        int[] transposed = new int[n * n];
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                transposed[col * n + row] = board[row * n + col];
+            }
+        }
+        return transposed;
+    }
+
+    @Override
+    public String toString() {
+        return "CanonicalForm{" + dimensions + "x" + dimensions + "}";
+    }
+}
@@ -0,0 +1,53 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Change in a board's conflicting cells caused by a single move.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class ConflictDelta {
+    private final List<Integer> added = new ArrayList<>();
+    private final List<Integer> cleared = new ArrayList<>();
+    private boolean solved;
+
+    void added(int cell) {
+        added.add(cell);
+    }
+
+    void cleared(int cell) {
+        cleared.add(cell);
+    }
+
+    void setSolved(boolean solved) {
+        this.solved = solved;
+    }
+
+    /**
+     * @return cells that started conflicting
+     */
+    public List<Integer> getAdded() {
+        return added;
+    }
+
+    /**
+     * @return cells that stopped conflicting
+     */
+    public List<Integer> getCleared() {
+        return cleared;
+    }
+
+    /**
+     * @return true if the board is solved after the move
+     */
+    public boolean isSolved() {
+        return solved;
+    }
+
+    @Override
+    public String toString() {
+        return "ConflictDelta{added=" + added + ", cleared=" + cleared + ", solved=" + solved + "}";
+    }
+}
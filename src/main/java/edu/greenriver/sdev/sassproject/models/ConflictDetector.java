@@ -0,0 +1,115 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Finds conflicting cells on a board in a single pass. Each row, column, and
+ * group keeps a bitmask of the values seen so far (bit v-1 for value v), so a
+ * repeated value is detected with one AND per unit instead of comparing every
+ * pair of peers. Supports boards of up to 32 values.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public final class ConflictDetector {
+
+    private ConflictDetector() {
+    }
+
+    /**
+     * Method to get every cell that has a conflict with at least one other cell.
+     * Empty cells and values outside the board size never conflict.
+     * @param size enum representing the dimensions of the board
+     * @param board array of integers representing a sudoku board
+     * @return Set of cell locations that contain conflicts
+     */
+    public static Set<Integer> findConflictingCells(BoardSize size, int[] board) {
+        checkLength(size, board);
+        final int dimension = size.getDimensions();
+        int[] rowMasks = new int[dimension];
+        int[] columnMasks = new int[dimension];
+        int[] groupMasks = new int[dimension];
+        Set<Integer> conflicts = new HashSet<>();
+
+        for (int cell = 0; cell < size.getCellCount(); cell++) {
+            int value = board[cell];
+            if (value < 1 || value > dimension) {
+                continue;
+            }
+            int bit = 1 << (value - 1);
+            int row = size.getRow(cell);
+            int column = size.getColumn(cell);
+            int group = size.getGroup(cell);
+
+            // Repeated value: flag this cell and the earlier cell(s) it repeats
+            if ((rowMasks[row] & bit) != 0) {
+                addMatches(conflicts, board, size.getRowCells(row), cell, value);
+            }
+            if ((columnMasks[column] & bit) != 0) {
+                addMatches(conflicts, board, size.getColumnCells(column), cell, value);
+            }
+            if ((groupMasks[group] & bit) != 0) {
+                addMatches(conflicts, board, size.getGroupCells(group), cell, value);
+            }
+
+            rowMasks[row] |= bit;
+            columnMasks[column] |= bit;
+            groupMasks[group] |= bit;
+        }
+        return conflicts;
+    }
+
+    /**
+     * Method to check whether any two cells conflict. Stops at the first conflict.
+     * @param size enum representing the dimensions of the board
+     * @param board array of integers representing a sudoku board
+     * @return true if at least one value repeats within a row, column, or group
+     */
+    public static boolean hasConflicts(BoardSize size, int[] board) {
+        checkLength(size, board);
+        final int dimension = size.getDimensions();
+        int[] rowMasks = new int[dimension];
+        int[] columnMasks = new int[dimension];
+        int[] groupMasks = new int[dimension];
+
+        for (int cell = 0; cell < size.getCellCount(); cell++) {
+            int value = board[cell];
+            if (value < 1 || value > dimension) {
+                continue;
+            }
+            int bit = 1 << (value - 1);
+            int row = size.getRow(cell);
+            int column = size.getColumn(cell);
+            int group = size.getGroup(cell);
+
+            if (((rowMasks[row] | columnMasks[column] | groupMasks[group]) & bit) != 0) {
+                return true;
+            }
+            rowMasks[row] |= bit;
+            columnMasks[column] |= bit;
+            groupMasks[group] |= bit;
+        }
+        return false;
+    }
+
+    // Method to flag the current cell and every earlier cell in the unit holding the same value
+    private static void addMatches(Set<Integer> conflicts, int[] board, int[] unit, int cell, int value) {
+        conflicts.add(cell);
+        for (int other : unit) {
+            if (other >= cell) {
+                break;
+            }
+            if (board[other] == value) {
+                conflicts.add(other);
+            }
+        }
+    }
+
+    private static void checkLength(BoardSize size, int[] board) {
+        if (board.length != size.getCellCount()) {
+            throw new IllegalArgumentException("Board does not match size");
+        }
+    }
+}
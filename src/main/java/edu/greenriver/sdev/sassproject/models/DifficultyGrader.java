@@ -0,0 +1,464 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.Technique;
+
+/**
+ * Grades a puzzle by solving it the way a person would. Candidates are kept as
+ * bitmasks (bit v-1 for value v) and the simplest technique that makes progress
+ * is applied each step. The grade is the hardest technique needed; a puzzle that
+ * cannot be finished with these techniques needs trial and error (expert).
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class DifficultyGrader {
+    private final BoardSize size;
+    private final int dimension;
+    private final int cellCount;
+    private final int[][] units;      // rows, then columns, then groups
+
+    private final int[] values;
+    private final int[] candidates;
+    private int filled;
+    private int steps;
+    private Technique hardest;
+
+    private DifficultyGrader(BoardSize size, int[] puzzle) {
+        this.size = size;
+        this.dimension = size.getDimensions();
+        this.cellCount = size.getCellCount();
+        this.units = new int[3 * dimension][];
+        for (int i = 0; i < dimension; i++) {
+            units[i] = size.getRowCells(i);
+            units[dimension + i] = size.getColumnCells(i);
+            units[2 * dimension + i] = size.getGroupCells(i);
+        }
+
+        this.values = new int[cellCount];
+        this.candidates = new int[cellCount];
+        int allValues = (1 << dimension) - 1;
+        for (int cell = 0; cell < cellCount; cell++) {
+            candidates[cell] = allValues;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (puzzle[cell] != 0) {
+                place(cell, puzzle[cell]);
+            }
+        }
+        this.hardest = Technique.NAKED_SINGLE;
+    }
+
+    /**
+     * Method to grade a puzzle by the techniques needed to solve it.
+     * @param size BoardSize enum containing the dimensions of the board
+     * @param puzzle array of integers representing a sudoku board (0 = empty)
+     * @return grade containing the hardest technique needed and number of steps
+     */
+    public static PuzzleGrade grade(BoardSize size, int[] puzzle) {
+        if (puzzle.length != size.getCellCount()) {
+            throw new IllegalArgumentException("Board does not match size");
+        }
+        return new DifficultyGrader(size, puzzle).solve();
+    }
+
+    private PuzzleGrade solve() {
+        while (filled < cellCount) {
+            if (hasContradiction()) {
+                break;
+            }
+            if (!(applyNakedSingles()
+                    || applyHiddenSingles()
+                    || apply(Technique.POINTING, applyPointing())
+                    || apply(Technique.BOX_LINE_REDUCTION, applyBoxLineReduction())
+                    || apply(Technique.NAKED_PAIR, applyNakedPair())
+                    || apply(Technique.HIDDEN_PAIR, applyHiddenPair())
+                    || apply(Technique.NAKED_TRIPLE, applyNakedTriple())
+                    || apply(Technique.X_WING, applyXWing())
+                    || apply(Technique.XY_WING, applyXYWing()))) {
+                break;
+            }
+        }
+
+        if (filled < cellCount) {
+            // Stuck (or inconsistent): would need guessing
+            record(Technique.TRIAL_AND_ERROR);
+        }
+        return new PuzzleGrade(hardest, steps);
+    }
+
+
+    ////   SINGLES   ////
+
+    // A cell with only one candidate
+    private boolean applyNakedSingles() {
+        boolean progress = false;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (values[cell] == 0 && Integer.bitCount(candidates[cell]) == 1) {
+                place(cell, Integer.numberOfTrailingZeros(candidates[cell]) + 1);
+                record(Technique.NAKED_SINGLE);
+                progress = true;
+            }
+        }
+        return progress;
+    }
+
+    // A value with only one possible cell in a unit
+    private boolean applyHiddenSingles() {
+        boolean progress = false;
+        for (int[] unit : units) {
+            int once = 0;
+            int twice = 0;
+            for (int cell : unit) {
+                twice |= once & candidates[cell];
+                once |= candidates[cell];
+            }
+            int singles = once & ~twice;
+            while (singles != 0) {
+                int bit = Integer.lowestOneBit(singles);
+                singles &= ~bit;
+                for (int cell : unit) {
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                        record(Technique.HIDDEN_SINGLE);
+                        progress = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+
+    ////   INTERSECTIONS   ////
+
+    // A value confined to one row or column within a group is removed from the rest of that line
+    private boolean applyPointing() {
+        for (int group = 0; group < dimension; group++) {
+            int[] groupCells = size.getGroupCells(group);
+            for (int bit = 1; bit < (1 << dimension); bit <<= 1) {
+                int row = -1;
+                int column = -1;
+                boolean sameRow = true;
+                boolean sameColumn = true;
+                boolean found = false;
+                for (int cell : groupCells) {
+                    if ((candidates[cell] & bit) != 0) {
+                        sameRow &= !found || size.getRow(cell) == row;
+                        sameColumn &= !found || size.getColumn(cell) == column;
+                        row = size.getRow(cell);
+                        column = size.getColumn(cell);
+                        found = true;
+                    }
+                }
+                if (found && sameRow && eliminateOutside(size.getRowCells(row), group, bit)) {
+                    return true;
+                }
+                if (found && sameColumn && eliminateOutside(size.getColumnCells(column), group, bit)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // A value confined to one group within a row or column is removed from the rest of that group
+    private boolean applyBoxLineReduction() {
+        for (int line = 0; line < 2 * dimension; line++) {
+            int[] lineCells = units[line];
+            for (int bit = 1; bit < (1 << dimension); bit <<= 1) {
+                int group = -1;
+                boolean sameGroup = true;
+                for (int cell : lineCells) {
+                    if ((candidates[cell] & bit) != 0) {
+                        sameGroup &= group == -1 || size.getGroup(cell) == group;
+                        group = size.getGroup(cell);
+                    }
+                }
+                if (group != -1 && sameGroup && eliminateOutsideLine(size.getGroupCells(group), lineCells, bit)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean eliminateOutside(int[] lineCells, int group, int bit) {
+        boolean changed = false;
+        for (int cell : lineCells) {
+            if (size.getGroup(cell) != group) {
+                changed |= eliminate(cell, bit);
+            }
+        }
+        return changed;
+    }
+
+    private boolean eliminateOutsideLine(int[] groupCells, int[] lineCells, int bit) {
+        boolean changed = false;
+        for (int cell : groupCells) {
+            if (!contains(lineCells, cell)) {
+                changed |= eliminate(cell, bit);
+            }
+        }
+        return changed;
+    }
+
+
+    ////   SUBSETS   ////
+
+    // Two cells in a unit with the same two candidates
+    private boolean applyNakedPair() {
+        for (int[] unit : units) {
+            for (int i = 0; i < unit.length; i++) {
+                int mask = candidates[unit[i]];
+                if (values[unit[i]] != 0 || Integer.bitCount(mask) != 2) {
+                    continue;
+                }
+                for (int j = i + 1; j < unit.length; j++) {
+                    if (values[unit[j]] == 0 && candidates[unit[j]] == mask
+                            && eliminateFromUnit(unit, mask, unit[i], unit[j], -1)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Two values in a unit that can only go in the same two cells
+    private boolean applyHiddenPair() {
+        for (int[] unit : units) {
+            // positions[v] = bitmask of unit indices where value v+1 is a candidate
+            int[] positions = new int[dimension];
+            for (int index = 0; index < unit.length; index++) {
+                int mask = candidates[unit[index]];
+                while (mask != 0) {
+                    int value = Integer.numberOfTrailingZeros(mask);
+                    positions[value] |= 1 << index;
+                    mask &= mask - 1;
+                }
+            }
+            for (int first = 0; first < dimension; first++) {
+                if (Integer.bitCount(positions[first]) != 2) {
+                    continue;
+                }
+                for (int second = first + 1; second < dimension; second++) {
+                    if (positions[second] != positions[first]) {
+                        continue;
+                    }
+                    int keep = (1 << first) | (1 << second);
+                    boolean changed = false;
+                    int cells = positions[first];
+                    while (cells != 0) {
+                        int cell = unit[Integer.numberOfTrailingZeros(cells)];
+                        changed |= eliminate(cell, ~keep);
+                        cells &= cells - 1;
+                    }
+                    if (changed) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Three cells in a unit whose candidates together are only three values
+    private boolean applyNakedTriple() {
+        for (int[] unit : units) {
+            for (int i = 0; i < unit.length; i++) {
+                if (!isTripleCandidate(unit[i])) {
+                    continue;
+                }
+                for (int j = i + 1; j < unit.length; j++) {
+                    if (!isTripleCandidate(unit[j])) {
+                        continue;
+                    }
+                    for (int k = j + 1; k < unit.length; k++) {
+                        if (!isTripleCandidate(unit[k])) {
+                            continue;
+                        }
+                        int mask = candidates[unit[i]] | candidates[unit[j]] | candidates[unit[k]];
+                        if (Integer.bitCount(mask) == 3
+                                && eliminateFromUnit(unit, mask, unit[i], unit[j], unit[k])) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isTripleCandidate(int cell) {
+        int count = Integer.bitCount(candidates[cell]);
+        return values[cell] == 0 && count >= 2 && count <= 3;
+    }
+
+    private boolean eliminateFromUnit(int[] unit, int mask, int first, int second, int third) {
+        boolean changed = false;
+        for (int cell : unit) {
+            if (cell != first && cell != second && cell != third) {
+                changed |= eliminate(cell, mask);
+            }
+        }
+        return changed;
+    }
+
+
+    ////   FISH   ////
+
+    // A value in exactly two columns of two rows (or two rows of two columns)
+    private boolean applyXWing() {
+        for (int bit = 1; bit < (1 << dimension); bit <<= 1) {
+            if (applyXWing(bit, 0, dimension) || applyXWing(bit, dimension, 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Base lines start at baseOffset in units, cover lines at coverOffset
+    private boolean applyXWing(int bit, int baseOffset, int coverOffset) {
+        int[] lineMasks = new int[dimension];
+        for (int line = 0; line < dimension; line++) {
+            int[] cells = units[baseOffset + line];
+            for (int index = 0; index < cells.length; index++) {
+                if ((candidates[cells[index]] & bit) != 0) {
+                    lineMasks[line] |= 1 << index;
+                }
+            }
+        }
+
+        for (int first = 0; first < dimension; first++) {
+            if (Integer.bitCount(lineMasks[first]) != 2) {
+                continue;
+            }
+            for (int second = first + 1; second < dimension; second++) {
+                if (lineMasks[second] != lineMasks[first]) {
+                    continue;
+                }
+                boolean changed = false;
+                int covers = lineMasks[first];
+                while (covers != 0) {
+                    int[] coverCells = units[coverOffset + Integer.numberOfTrailingZeros(covers)];
+                    for (int index = 0; index < coverCells.length; index++) {
+                        if (index != first && index != second) {
+                            changed |= eliminate(coverCells[index], bit);
+                        }
+                    }
+                    covers &= covers - 1;
+                }
+                if (changed) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    // A two-candidate pivot {a,b} seeing pincers {a,c} and {b,c}: c is removed from cells seeing both pincers
+    private boolean applyXYWing() {
+        for (int pivot = 0; pivot < cellCount; pivot++) {
+            int pivotMask = candidates[pivot];
+            if (values[pivot] != 0 || Integer.bitCount(pivotMask) != 2) {
+                continue;
+            }
+            int[] peers = size.getPeers(pivot);
+            for (int i = 0; i < peers.length; i++) {
+                int first = peers[i];
+                int firstMask = candidates[first];
+                if (!isPincer(first, pivotMask)) {
+                    continue;
+                }
+                for (int j = i + 1; j < peers.length; j++) {
+                    int second = peers[j];
+                    int secondMask = candidates[second];
+                    if (!isPincer(second, pivotMask) || firstMask == secondMask) {
+                        continue;
+                    }
+                    // Pincers share the same value c and together cover the pivot's values
+                    int shared = firstMask & secondMask & ~pivotMask;
+                    if (Integer.bitCount(shared) != 1 || ((firstMask | secondMask) & pivotMask) != pivotMask) {
+                        continue;
+                    }
+                    boolean changed = false;
+                    for (int cell : size.getPeers(first)) {
+                        if (cell != second && cell != pivot && contains(size.getPeers(second), cell)) {
+                            changed |= eliminate(cell, shared);
+                        }
+                    }
+                    if (changed) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Pincer: two candidates, exactly one of them shared with the pivot
+    private boolean isPincer(int cell, int pivotMask) {
+        int mask = candidates[cell];
+        return values[cell] == 0 && Integer.bitCount(mask) == 2 && Integer.bitCount(mask & pivotMask) == 1;
+    }
+
+
+    ////   HELPERS   ////
+
+    private void place(int cell, int value) {
+        int bit = 1 << (value - 1);
+        values[cell] = value;
+        candidates[cell] = 0;
+        filled++;
+        for (int peer : size.getPeers(cell)) {
+            candidates[peer] &= ~bit;
+        }
+    }
+
+    private boolean eliminate(int cell, int mask) {
+        if (values[cell] != 0 || (candidates[cell] & mask) == 0) {
+            return false;
+        }
+        candidates[cell] &= ~mask;
+        return true;
+    }
+
+    private boolean hasContradiction() {
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (values[cell] == 0 && candidates[cell] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean apply(Technique technique, boolean progress) {
+        if (progress) {
+            record(technique);
+        }
+        return progress;
+    }
+
+    private void record(Technique technique) {
+        steps++;
+        if (technique.ordinal() > hardest.ordinal()) {
+            hardest = technique;
+        }
+    }
+
+    private static boolean contains(int[] cells, int cell) {
+        for (int other : cells) {
+            if (other == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "DifficultyGrader{" + size + "}";
+    }
+}
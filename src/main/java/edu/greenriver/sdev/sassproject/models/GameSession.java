@@ -0,0 +1,129 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A game in progress held on the server, so each move only sends the changed
+ * cell and gets back the conflicts it added or cleared.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class GameSession {
+    private final String id;
+    private final String client;
+    private final Board board;
+    private volatile long lastAccess;
+    // A lock rather than synchronized, so a waiting virtual thread releases its carrier
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * @param id unique identifier of the session
+     * @param client address of the client that started the session
+     * @param board board being played
+     */
+    public GameSession(String id, String client, Board board) {
+        this.id = id;
+        this.client = client;
+        this.board = board;
+        touch();
+    }
+
+    /**
+     * Method to play a move. Moves on the same session are applied one at a time.
+     * @param location cell location on the board
+     * @param value value to store in the cell (0 clears it)
+     * @return cells that started or stopped conflicting because of the move
+     * @throws IllegalArgumentException if the location is not on the board or is an initial clue
+     */
+    public ConflictDelta play(int location, int value) {
+        lock.lock();
+        try {
+            touch();
+            return board.setCell(location, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to mark the session as used now (delays its expiry).
+     */
+    public void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    /**
+     * @return unique identifier of the session
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return board size in the format WxH
+     */
+    public String getSize() {
+        return board.getSize().getName();
+    }
+
+    /**
+     * @return current value of every cell (0 = empty)
+     */
+    public int[] getCells() {
+        lock.lock();
+        try {
+            return board.getGameData();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return cells that currently conflict with a peer
+     */
+    public Set<Integer> getConflictingCells() {
+        lock.lock();
+        try {
+            return board.getConflictingCells();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the board is solved
+     */
+    public boolean isSolved() {
+        lock.lock();
+        try {
+            return board.checkForWin();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return address of the client that started the session
+     */
+    @JsonIgnore
+    public String getClient() {
+        return client;
+    }
+
+    /**
+     * @return System.nanoTime of the last time the session was used
+     */
+    @JsonIgnore
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    @Override
+    public String toString() {
+        return "GameSession{" + id + "}";
+    }
+}
@@ -0,0 +1,49 @@
+package edu.greenriver.sdev.sassproject.models;
+
+/**
+ * Counts from importing a stream of solved boards.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class ImportResult {
+    private final long accepted;
+    private final long duplicates;
+    private final long invalid;
+
+    /**
+     * @param accepted boards added to the collection
+     * @param duplicates solved boards equivalent to one already stored
+     * @param invalid boards that were malformed, the wrong size, or not solved
+     */
+    public ImportResult(long accepted, long duplicates, long invalid) {
+        this.accepted = accepted;
+        this.duplicates = duplicates;
+        this.invalid = invalid;
+    }
+
+    /**
+     * @return boards added to the collection
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return solved boards equivalent to one already stored
+     */
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * @return boards that were malformed, the wrong size, or not solved
+     */
+    public long getInvalid() {
+        return invalid;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{accepted=" + accepted + ", duplicates=" + duplicates + ", invalid=" + invalid + "}";
+    }
+}
@@ -0,0 +1,180 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.JobStatus;
+import edu.greenriver.sdev.sassproject.models.enums.JobType;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A solve or generate request run in the background, so the request that
+ * submitted it returns at once. Holds the job's progress while it runs and
+ * its result once it finishes. Status only moves forward (queued, running,
+ * then one finished state).
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class Job {
+    private final String id;
+    private final JobType type;
+    private final BoardSize size;
+    private final int[] board;
+    private final long deadline;
+    private final JobProgress progress = new JobProgress();
+    private final AtomicReference<Outcome> outcome = new AtomicReference<>(new Outcome(JobStatus.QUEUED, null));
+    private volatile long finishedAt;
+
+    /**
+     * @param id unique identifier of the job
+     * @param type kind of work
+     * @param size size of the board
+     * @param board board to solve (null when generating)
+     * @param deadline System.nanoTime() value after which the job stops
+     */
+    public Job(String id, JobType type, BoardSize size, int[] board, long deadline) {
+        this.id = id;
+        this.type = type;
+        this.size = size;
+        this.board = board;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Method to mark the job as running.
+     * @return true if the job was queued, false if it was cancelled first
+     */
+    public boolean start() {
+        Outcome queued = outcome.get();
+        return queued.status == JobStatus.QUEUED
+                && outcome.compareAndSet(queued, new Outcome(JobStatus.RUNNING, null));
+    }
+
+    /**
+     * Method to finish the job.
+     * @param finalStatus finished state of the job
+     * @param result result of the job (null unless done)
+     * @return true if this call finished the job, false if it had already finished
+     */
+    public boolean finish(JobStatus finalStatus, int[] result) {
+        Outcome finished = new Outcome(finalStatus, result);
+        Outcome current = outcome.get();
+        while (!current.status.isFinished()) {
+            if (outcome.compareAndSet(current, finished)) {
+                finishedAt = System.nanoTime();
+                if (finalStatus == JobStatus.CANCELLED) {
+                    // Ask the search to stop too, in case it is running
+                    progress.cancel();
+                }
+                return true;
+            }
+            current = outcome.get();
+        }
+        return false;
+    }
+
+    /**
+     * @return unique identifier of the job
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return kind of work
+     */
+    public JobType getType() {
+        return type;
+    }
+
+    /**
+     * @return board size in the format WxH
+     */
+    public String getSize() {
+        return size.getName();
+    }
+
+    /**
+     * @return size of the board
+     */
+    @JsonIgnore
+    public BoardSize getBoardSize() {
+        return size;
+    }
+
+    /**
+     * @return board to solve (null when generating)
+     */
+    @JsonIgnore
+    public int[] getBoard() {
+        return board;
+    }
+
+    /**
+     * @return System.nanoTime() value after which the job stops
+     */
+    @JsonIgnore
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return progress of the job's search
+     */
+    @JsonIgnore
+    public JobProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * @return current state of the job
+     */
+    public JobStatus getStatus() {
+        return outcome.get().status;
+    }
+
+    /**
+     * @return search nodes visited so far
+     */
+    public long getNodesSearched() {
+        return progress.getNodesSearched();
+    }
+
+    /**
+     * @return clues removed so far (generate jobs only)
+     */
+    public int getCluesRemoved() {
+        return progress.getCluesRemoved();
+    }
+
+    /**
+     * @return the solution or generated puzzle, or null until the job is done
+     */
+    public int[] getResult() {
+        return outcome.get().result;
+    }
+
+    /**
+     * @return System.nanoTime() when the job finished (0 while it is unfinished)
+     */
+    @JsonIgnore
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Job{" + id + ", " + type + " " + size.getName() + ", " + getStatus() + "}";
+    }
+
+    // Status and result, replaced together so the result is never seen without its status
+    private static final class Outcome {
+        private final JobStatus status;
+        private final int[] result;
+
+        private Outcome(JobStatus status, int[] result) {
+            this.status = status;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package edu.greenriver.sdev.sassproject.models;
+
+/**
+ * Progress of a long search (solving or generating), and a flag asking it to
+ * stop. The search reports into it every 1024 nodes, so reading it costs the
+ * search nothing. Only the thread running the search writes the counts; any
+ * thread may read them or cancel.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class JobProgress {
+    private volatile long nodesSearched;
+    private volatile int cluesRemoved;
+    private volatile boolean cancelled;
+
+    /**
+     * @return search nodes visited so far
+     */
+    public long getNodesSearched() {
+        return nodesSearched;
+    }
+
+    /**
+     * @return clues removed so far (generation only)
+     */
+    public int getCluesRemoved() {
+        return cluesRemoved;
+    }
+
+    /**
+     * @return true if the search has been asked to stop
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Method to ask the search to stop. It stops within 1024 nodes.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Called only by the thread running the search
+    void addNodes(long nodes) {
+        nodesSearched += nodes;
+    }
+
+    // Called only by the thread running the search
+    void clueRemoved() {
+        cluesRemoved++;
+    }
+
+    @Override
+    public String toString() {
+        return "JobProgress{nodes=" + nodesSearched + ", cluesRemoved=" + cluesRemoved
+                + (cancelled ? ", cancelled" : "") + "}";
+    }
+}
@@ -0,0 +1,253 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Players ordered by games won, kept up to date as their wins change so no
+ * ranking needs a scan of every player.
+ * <p>
+ * Scores are held twice: in a skip list ordered by wins (most first), which
+ * lists the top players in O(log n + limit), and in a treap counting players
+ * by win count, which finds how many players have more wins than one player
+ * (their position) in O(log d), where d is the number of distinct win counts.
+ * The treap holds one node per distinct win count, so its size does not depend
+ * on how large the counts are. Players with equal wins share a position.
+ * <p>
+ * Changes are serialized by a lock (not synchronized, so virtual threads
+ * waiting on it do not pin their carrier); the top of the board is read
+ * without locking.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class Leaderboard {
+    private final Lock lock = new ReentrantLock();
+    private final Map<String, Score> scores = new ConcurrentHashMap<>();
+    private final NavigableSet<Score> ordered = new ConcurrentSkipListSet<>(
+            Comparator.comparingInt((Score score) -> score.wins).reversed()
+                    .thenComparing(score -> score.key));
+
+    // Treap of win counts, each node holding the number of players with its wins
+    private Count root;
+
+    /**
+     * Method to add a player or change their wins.
+     * @param key unique key of the player (lowercase username)
+     * @param username username shown on the board
+     * @param wins games won by the player
+     */
+    public void set(String key, String username, int wins) {
+        lock.lock();
+        try {
+            if (wins < 0) {
+                throw new IllegalArgumentException("Wins must not be negative");
+            }
+            Score old = scores.get(key);
+            if (old != null && old.wins == wins && old.username.equals(username)) {
+                return;
+            }
+            remove(key);
+
+            Score score = new Score(key, username, wins);
+            scores.put(key, score);
+            ordered.add(score);
+            root = addCount(root, wins, 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to take a player off the board.
+     * @param key unique key of the player (lowercase username)
+     */
+    public void remove(String key) {
+        lock.lock();
+        try {
+            Score old = scores.remove(key);
+            if (old != null) {
+                ordered.remove(old);
+                root = addCount(root, old.wins, -1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to list the players with the most wins.
+     * @param limit most players to list
+     * @return up to limit players, most wins first
+     */
+    public List<LeaderboardEntry> top(int limit) {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.min(limit, scores.size()));
+        Iterator<Score> iterator = ordered.iterator();
+        long position = 0;
+        int previousWins = -1;
+        for (int i = 0; i < limit && iterator.hasNext(); i++) {
+            Score score = iterator.next();
+            if (score.wins != previousWins) {
+                position = i + 1;
+                previousWins = score.wins;
+            }
+            entries.add(new LeaderboardEntry(position, score.username, score.wins));
+        }
+        return entries;
+    }
+
+    /**
+     * Method to find a player's place on the board.
+     * @param key unique key of the player (lowercase username)
+     * @return the player's entry, or null if they are not on the board
+     */
+    public LeaderboardEntry find(String key) {
+        lock.lock();
+        try {
+            Score score = scores.get(key);
+            if (score == null) {
+                return null;
+            }
+            return new LeaderboardEntry(countAbove(score.wins) + 1, score.username, score.wins);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of players on the board
+     */
+    public int size() {
+        return scores.size();
+    }
+
+    // Method to add to the number of players with the given wins, returns the new subtree root
+    private static Count addCount(Count node, int wins, long delta) {
+        if (node == null) {
+            return new Count(wins, delta);
+        }
+        if (wins < node.wins) {
+            node.left = addCount(node.left, wins, delta);
+            if (node.left != null && node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        }
+        else if (wins > node.wins) {
+            node.right = addCount(node.right, wins, delta);
+            if (node.right != null && node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        else {
+            node.count += delta;
+            if (node.count == 0) {
+                // No players left with these wins
+                return merge(node.left, node.right);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    // Method to count the players with more than the given wins
+    private long countAbove(int wins) {
+        long ahead = 0;
+        Count node = root;
+        while (node != null) {
+            if (node.wins > wins) {
+                ahead += node.count + total(node.right);
+                node = node.left;
+            }
+            else {
+                node = node.right;
+            }
+        }
+        return ahead;
+    }
+
+    private static Count rotateRight(Count node) {
+        Count top = node.left;
+        node.left = top.right;
+        top.right = node;
+        node.update();
+        top.update();
+        return top;
+    }
+
+    private static Count rotateLeft(Count node) {
+        Count top = node.right;
+        node.right = top.left;
+        top.left = node;
+        node.update();
+        top.update();
+        return top;
+    }
+
+    // Method to join two treaps where every win count in low is below those in high
+    private static Count merge(Count low, Count high) {
+        if (low == null) {
+            return high;
+        }
+        if (high == null) {
+            return low;
+        }
+        if (low.priority > high.priority) {
+            low.right = merge(low.right, high);
+            low.update();
+            return low;
+        }
+        high.left = merge(low, high.left);
+        high.update();
+        return high;
+    }
+
+    private static long total(Count node) {
+        return node == null ? 0 : node.total;
+    }
+
+    @Override
+    public String toString() {
+        return "Leaderboard{players=" + scores.size() + "}";
+    }
+
+    // A player's wins, replaced as a whole when they change
+    private static final class Score {
+        private final String key;
+        private final String username;
+        private final int wins;
+
+        private Score(String key, String username, int wins) {
+            this.key = key;
+            this.username = username;
+            this.wins = wins;
+        }
+    }
+
+    // Players with one win count, and the total of its subtree
+    private static final class Count {
+        private final int wins;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private long count;
+        private long total;
+        private Count left;
+        private Count right;
+
+        private Count(int wins, long count) {
+            this.wins = wins;
+            this.count = count;
+            this.total = count;
+        }
+
+        private void update() {
+            total = count + Leaderboard.total(left) + Leaderboard.total(right);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package edu.greenriver.sdev.sassproject.models;
+
+/**
+ * A player's place on a leaderboard.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class LeaderboardEntry {
+    private final long position;
+    private final String username;
+    private final int wins;
+
+    /**
+     * @param position place on the leaderboard (players with equal wins share a place)
+     * @param username the player's username
+     * @param wins games won by the player
+     */
+    public LeaderboardEntry(long position, String username, int wins) {
+        this.position = position;
+        this.username = username;
+        this.wins = wins;
+    }
+
+    /**
+     * @return place on the leaderboard, starting at 1 (players with equal wins share a place)
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the player's username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return games won by the player
+     */
+    public int getWins() {
+        return wins;
+    }
+
+    @Override
+    public String toString() {
+        return "LeaderboardEntry{position=" + position + ", username='" + username + "', wins=" + wins + "}";
+    }
+}
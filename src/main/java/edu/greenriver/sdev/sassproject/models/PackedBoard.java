@@ -0,0 +1,198 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Compact, immutable copy of a board's cells for long-lived storage. Cells are
+ * packed into longs at 4 bits each for 4x4 and 9x9 boards and 5 bits each for
+ * 16x16 (values run 0 to 16), so a 9x9 board takes 6 longs instead of 81 ints.
+ * The hash is computed once, and equality compares the packed words.
+ * <p>
+ * A board's ID is its packed words as URL-safe base64 (little-endian, trailing
+ * zero bytes dropped), so the ID is derived from the content alone, is the same
+ * on every server, and can be turned back into the board without a lookup.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public final class PackedBoard {
+    private final BoardSize size;
+    private final long[] words;
+    private final int hash;
+
+    private PackedBoard(BoardSize size, long[] words) {
+        this.size = size;
+        this.words = words;
+        this.hash = 31 * size.hashCode() + Arrays.hashCode(words);
+    }
+
+    /**
+     * Method to pack a board.
+     * @param size size of the board
+     * @param board cell values (0 = empty)
+     * @return packed copy of the board
+     * @throws IllegalArgumentException if the board does not match the size or has a value out of range
+     */
+    public static PackedBoard of(BoardSize size, int[] board) {
+        if (board.length != size.getCellCount()) {
+            throw new IllegalArgumentException("Board does not match size");
+        }
+        int bits = bitsPerCell(size);
+        int cellsPerWord = Long.SIZE / bits;
+        long[] words = new long[(board.length + cellsPerWord - 1) / cellsPerWord];
+
+        for (int cell = 0; cell < board.length; cell++) {
+            int value = board[cell];
+            if (value < 0 || value > size.getDimensions()) {
+                throw new IllegalArgumentException("Value out of range at cell " + cell);
+            }
+            words[cell / cellsPerWord] |= (long) value << ((cell % cellsPerWord) * bits);
+        }
+        return new PackedBoard(size, words);
+    }
+
+    /**
+     * Method to rebuild a board from its packed words (as written by getWord).
+     * @param size size of the board
+     * @param words packed cells
+     * @return the packed board
+     * @throws IllegalArgumentException if the number of words does not match the size
+     */
+    public static PackedBoard fromWords(BoardSize size, long[] words) {
+        if (words.length != wordCount(size)) {
+            throw new IllegalArgumentException("Words do not match size");
+        }
+        return new PackedBoard(size, words.clone());
+    }
+
+    /**
+     * Method to rebuild a board from its ID (as returned by toId).
+     * @param size size of the board
+     * @param id ID of the board
+     * @return the packed board
+     * @throws IllegalArgumentException if the ID is not the ID of a board of the size
+     */
+    public static PackedBoard fromId(BoardSize size, String id) {
+        byte[] bytes = Base64.getUrlDecoder().decode(id);
+        long[] words = new long[wordCount(size)];
+        if (bytes.length > words.length * Long.BYTES) {
+            throw new IllegalArgumentException("ID too long for size");
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            words[i / Long.BYTES] |= (bytes[i] & 0xFFL) << ((i % Long.BYTES) * Byte.SIZE);
+        }
+
+        // Re-pack to reject values out of range, stray bits, and other spellings of the ID
+        PackedBoard board = of(size, new PackedBoard(size, words).toArray());
+        if (!board.equals(new PackedBoard(size, words)) || !board.toId().equals(id)) {
+            throw new IllegalArgumentException("Not a board ID");
+        }
+        return board;
+    }
+
+    /**
+     * @param size size of the board
+     * @return number of longs a packed board of the size takes
+     */
+    public static int wordCount(BoardSize size) {
+        int cellsPerWord = Long.SIZE / bitsPerCell(size);
+        return (size.getCellCount() + cellsPerWord - 1) / cellsPerWord;
+    }
+
+    /**
+     * @param size size of the board
+     * @return number of bits each cell takes
+     */
+    public static int bitsPerCell(BoardSize size) {
+        return size.getDimensions() < 16 ? 4 : 5;
+    }
+
+    ////   GETTERS   ////
+
+    /**
+     * @return size of the board
+     */
+    public BoardSize getSize() {
+        return this.size;
+    }
+
+    /**
+     * @param cellIndex index location of cell
+     * @return value of the cell (0 = empty)
+     */
+    public int get(int cellIndex) {
+        if (cellIndex < 0 || cellIndex >= size.getCellCount()) {
+            throw new IndexOutOfBoundsException("Location not on board");
+        }
+        int bits = bitsPerCell(size);
+        int cellsPerWord = Long.SIZE / bits;
+        long word = words[cellIndex / cellsPerWord];
+        return (int) (word >>> ((cellIndex % cellsPerWord) * bits)) & ((1 << bits) - 1);
+    }
+
+    /**
+     * @param index index of the packed word
+     * @return packed cells of the word
+     */
+    public long getWord(int index) {
+        return words[index];
+    }
+
+    /**
+     * @return ID of the board, derived from its cells
+     */
+    public String toId() {
+        byte[] bytes = new byte[words.length * Long.BYTES];
+        int length = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (words[i / Long.BYTES] >>> ((i % Long.BYTES) * Byte.SIZE));
+            if (bytes[i] != 0) {
+                length = i + 1;
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(bytes, length));
+    }
+
+    /**
+     * Method to unpack the board.
+     * @return new array holding every cell value
+     */
+    public int[] toArray() {
+        int bits = bitsPerCell(size);
+        int cellsPerWord = Long.SIZE / bits;
+        int mask = (1 << bits) - 1;
+        int[] board = new int[size.getCellCount()];
+
+        int cell = 0;
+        for (long word : words) {
+            for (int i = 0; i < cellsPerWord && cell < board.length; i++, cell++) {
+                board[cell] = (int) (word >>> (i * bits)) & mask;
+            }
+        }
+        return board;
+    }
+
+    @Override
+    public boolean equals(Object otherBoard) {
+        if (this == otherBoard) {
+            return true;
+        }
+        if (otherBoard == null || getClass() != otherBoard.getClass()) {
+            return false;
+        }
+        PackedBoard board = (PackedBoard) otherBoard;
+        return hash == board.hash && size == board.size && Arrays.equals(words, board.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "PackedBoard{" + size.getName() + "}";
+    }
+}
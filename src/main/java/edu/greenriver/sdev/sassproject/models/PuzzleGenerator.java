@@ -0,0 +1,200 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates random sudoku puzzles with a unique solution.
+ * A random complete grid is built by filling the diagonal groups with random
+ * permutations and solving the rest. Most seeds complete in well under a
+ * millisecond, but a few lead the search into a very long dead end, so each
+ * attempt gets a short time limit and a fresh seed when it runs out. Clues are
+ * then removed in random order, keeping a removal only if the puzzle still has
+ * exactly one solution, until the target clue count or the time budget is
+ * reached.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class PuzzleGenerator {
+    /** Default number of clues to leave on the board */
+    public static final Map<BoardSize, Integer> DEFAULT_TARGET_CLUES = new EnumMap<>(Map.of(
+            BoardSize.B4x4, 5,
+            BoardSize.B9x9, 26,
+            BoardSize.B16x16, 110));
+    /** Default time allowed to generate one puzzle */
+    public static final long DEFAULT_TIME_BUDGET_MS = 500;
+
+    private static final long FILL_ATTEMPT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Map<BoardSize, Integer> targetClues;
+    private final long timeBudgetNanos;
+
+    /**
+     * Constructor for a generator using the default clue targets and time budget.
+     */
+    public PuzzleGenerator() {
+        this(DEFAULT_TARGET_CLUES, DEFAULT_TIME_BUDGET_MS);
+    }
+
+    /**
+     * Constructor for a generator with custom clue targets.
+     * @param targetClues number of clues to aim for, by board size
+     * @param timeBudgetMillis time allowed to generate one puzzle. When it runs out
+     *                         the puzzle is returned with the clues remaining so far
+     */
+    public PuzzleGenerator(Map<BoardSize, Integer> targetClues, long timeBudgetMillis) {
+        this.targetClues = new EnumMap<>(DEFAULT_TARGET_CLUES);
+        this.targetClues.putAll(targetClues);
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    /**
+     * Method to generate a new puzzle with a unique solution.
+     * @param size size of board to generate
+     * @return an incomplete solvable sudoku board of the specified size as an array
+     */
+    public int[] generate(BoardSize size) {
+        return generate(size, SudokuSolver.NO_DEADLINE, System.nanoTime() + timeBudgetNanos, null);
+    }
+
+    /**
+     * Method to generate a new puzzle with a unique solution, reporting progress.
+     * Generating stops at the deadline or when the progress is cancelled.
+     * @param size size of board to generate
+     * @param deadline System.nanoTime() value after which generating stops
+     * @param progress progress to report nodes searched and clues removed into (may be null)
+     * @return an incomplete solvable sudoku board of the specified size as an array,
+     * or null if the deadline passed or the progress was cancelled before a
+     * complete grid was found
+     */
+    public int[] generate(BoardSize size, long deadline, JobProgress progress) {
+        return generate(size, deadline, deadline, progress);
+    }
+
+    // Method to generate a puzzle, giving up on the grid at fillDeadline and removing clues until removeDeadline
+    private int[] generate(BoardSize size, long fillDeadline, long removeDeadline, JobProgress progress) {
+        Random random = ThreadLocalRandom.current();
+
+        SudokuSolver solver = SudokuSolver.acquire(size);
+        try {
+            int[] puzzle = generateSolution(size, solver, random, fillDeadline, progress);
+            if (puzzle == null) {
+                return null;
+            }
+            removeClues(size, puzzle, solver, random, removeDeadline, progress);
+            return puzzle;
+        } finally {
+            solver.release();
+        }
+    }
+
+    /**
+     * Method to generate a random complete grid.
+     * @param size size of board to generate
+     * @return a solved sudoku board of the specified size as an array
+     */
+    public int[] generateSolution(BoardSize size) {
+        SudokuSolver solver = SudokuSolver.acquire(size);
+        try {
+            return generateSolution(size, solver, ThreadLocalRandom.current(), SudokuSolver.NO_DEADLINE, null);
+        } finally {
+            solver.release();
+        }
+    }
+
+    /**
+     * @param size size of board
+     * @return number of clues this generator aims to leave on a board of the given size
+     */
+    public int getTargetClues(BoardSize size) {
+        return targetClues.get(size);
+    }
+
+    // Method to fill a grid from random diagonal groups (null if cancelled or past the deadline)
+    private int[] generateSolution(BoardSize size, SudokuSolver solver, Random random, long deadline,
+                                   JobProgress progress) {
+        final int dimension = size.getDimensions();
+        final int root = size.getRoot();
+        int[] seed = new int[size.getCellCount()];
+        int[] solution = new int[seed.length];
+
+        // Diagonal groups share no row or column, so any permutation in each is consistent
+        while (true) {
+            if (progress != null && progress.isCancelled()) {
+                return null;
+            }
+            long now = System.nanoTime();
+            if (deadline != SudokuSolver.NO_DEADLINE && now - deadline > 0) {
+                return null;
+            }
+            for (int band = 0; band < root; band++) {
+                int[] values = shuffledValues(dimension, random);
+                int[] groupCells = size.getGroupCells(band * root + band);
+                for (int i = 0; i < dimension; i++) {
+                    seed[groupCells[i]] = values[i];
+                }
+            }
+
+            long attemptDeadline = now + FILL_ATTEMPT_NANOS;
+            if (deadline != SudokuSolver.NO_DEADLINE && attemptDeadline - deadline > 0) {
+                attemptDeadline = deadline;
+            }
+            if (solver.search(seed, solution, 1, attemptDeadline, progress) == 1) {
+                return solution;
+            }
+            // Seed cannot be completed (only on small boards) or is too slow to: try another
+        }
+    }
+
+    // Method to empty cells while the puzzle keeps exactly one solution
+    private void removeClues(BoardSize size, int[] puzzle, SudokuSolver solver, Random random, long deadline,
+                             JobProgress progress) {
+        int clues = puzzle.length;
+        int target = targetClues.get(size);
+        int[] order = shuffledValues(puzzle.length, random);
+
+        for (int i = 0; i < order.length && clues > target; i++) {
+            if (System.nanoTime() - deadline > 0 || (progress != null && progress.isCancelled())) {
+                return;
+            }
+            int cell = order[i] - 1;
+            int value = puzzle[cell];
+            puzzle[cell] = 0;
+
+            if (solver.search(puzzle, null, 2, deadline, progress) == 1 && !solver.isTimedOut()) {
+                clues--;
+                if (progress != null) {
+                    progress.clueRemoved();
+                }
+            } else {
+                // Removal made the solution ambiguous (or ran out of time)
+                puzzle[cell] = value;
+            }
+        }
+    }
+
+    // Method to get the values 1..count in random order
+    private static int[] shuffledValues(int count, Random random) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i + 1;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int temp = values[i];
+            values[i] = values[swap];
+            values[swap] = temp;
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "PuzzleGenerator{" + targetClues + "}";
+    }
+}
@@ -0,0 +1,50 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.Difficulty;
+import edu.greenriver.sdev.sassproject.models.enums.Technique;
+
+/**
+ * Result of grading a puzzle: the hardest technique needed to solve it
+ * and the number of technique applications (steps) taken.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class PuzzleGrade {
+    private final Technique hardestTechnique;
+    private final int steps;
+
+    /**
+     * @param hardestTechnique hardest technique needed to solve the puzzle
+     * @param steps number of technique applications taken
+     */
+    public PuzzleGrade(Technique hardestTechnique, int steps) {
+        this.hardestTechnique = hardestTechnique;
+        this.steps = steps;
+    }
+
+    /**
+     * @return difficulty implied by the hardest technique
+     */
+    public Difficulty getDifficulty() {
+        return hardestTechnique.getDifficulty();
+    }
+
+    /**
+     * @return hardest technique needed to solve the puzzle
+     */
+    public Technique getHardestTechnique() {
+        return hardestTechnique;
+    }
+
+    /**
+     * @return number of technique applications taken
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    @Override
+    public String toString() {
+        return "PuzzleGrade{" + hardestTechnique + ", steps=" + steps + "}";
+    }
+}
@@ -0,0 +1,102 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue backed by a fixed array (multi-producer, multi-consumer).
+ * Each slot carries a sequence number telling producers and consumers whose turn
+ * it is, so offer and poll are O(1) and only contend on a single CAS.
+ * @param <T> type of item stored
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class RingBuffer<T> {
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();   // next slot to take from
+    private final AtomicLong tail = new AtomicLong();   // next slot to fill
+
+    /**
+     * @param minimumCapacity number of items the buffer must hold (rounded up to a power of two)
+     */
+    public RingBuffer(int minimumCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minimumCapacity) - 1) << 1;
+        this.items = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Method to add an item if there is room.
+     * @param item item to add (not null)
+     * @return true if added, false if the buffer is full
+     */
+    public boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                // Slot is free for this position
+                if (tail.compareAndSet(position, position + 1)) {
+                    items.set(index, item);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // Slot still holds an item from the previous lap
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Method to remove the oldest item.
+     * @return the removed item, or null if the buffer is empty
+     */
+    public T poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                // Slot holds the item for this position
+                if (head.compareAndSet(position, position + 1)) {
+                    T item = items.get(index);
+                    items.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return item;
+                }
+            } else if (difference < 0) {
+                // Slot not filled yet
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return approximate number of items in the buffer
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * @return maximum number of items the buffer holds
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "RingBuffer{" + size() + "/" + capacity() + "}";
+    }
+}
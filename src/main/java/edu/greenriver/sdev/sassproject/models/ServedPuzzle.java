@@ -0,0 +1,43 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.Difficulty;
+
+/**
+ * A puzzle handed out for play, with the difficulty it was served as. That is
+ * the requested difficulty unless none of it was ready and the closest
+ * seed puzzle was served instead.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class ServedPuzzle {
+    private final int[] cells;
+    private final Difficulty difficulty;
+
+    /**
+     * @param cells the puzzle (0 = empty cell)
+     * @param difficulty difficulty of the puzzle, or null if no difficulty was requested
+     */
+    public ServedPuzzle(int[] cells, Difficulty difficulty) {
+        this.cells = cells;
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * @return the puzzle (0 = empty cell)
+     */
+    public int[] getCells() {
+        return cells;
+    }
+
+    /**
+     * @return difficulty of the puzzle, or null if no difficulty was requested
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    @Override
+    public String toString() {
+        return "ServedPuzzle{" + difficulty + "}";
+    }
+}
@@ -2,87 +2,56 @@ package edu.greenriver.sdev.sassproject.models;
 
 import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
 
-import java.util.*;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Graph data structure to store game data and quickly verify board completion.
  * Undirected (edges go both ways)
  * Unweighted
+ * The adjacency lists are the peer tables precompiled by BoardSize, so a graph
+ * holds no per-board state and one instance is shared for each size.
  * @author Patrick Lindsay
  * @version 1.0
  */
 public class SudokuGraph {
-    private Map<Integer, HashSet<Integer>> adjacencyLists = new HashMap<>();
+    private static final Map<BoardSize, SudokuGraph> GRAPHS = new EnumMap<>(BoardSize.class);
+    static {
+        for (BoardSize size : BoardSize.values()) {
+            GRAPHS.put(size, new SudokuGraph(size));
+        }
+    }
+
+    private final BoardSize size;
 
     /**
      * Constructor to initialize a Sudoku game data object.
-     * Graph is constructed by adding each cell on the board to the graph, referenced by an index.
-     * Edges are then added between each cell and every other cell that is in the same row,
-     * column, or group.
+     * Each cell on the board is a vertex, referenced by an index, with an edge to
+     * every other cell that is in the same row, column, or group. Edges are read
+     * from the shared tables of the given size rather than rebuilt.
      * @param size Sudoku board width/height
      */
     public SudokuGraph(BoardSize size) {
-        final int dimension = size.getDimensions();
-
-        // Add all vertices to graph (cells on the board)
-        for (int cellLocation = 0; cellLocation < size.getCellCount(); cellLocation++) {
-            adjacencyLists.put(cellLocation, null);
-        }
-
-        // Add edges connecting cells in the same row or column
-        for (int cellLocation = 0; cellLocation < size.getCellCount(); cellLocation++) {
-            int rowFirstIndex = (dimension * (cellLocation / dimension));
-            int column = cellLocation % dimension;
-
-            // Same row (Find start of current row, traverse row)
-            for (int i = rowFirstIndex; i < (rowFirstIndex + dimension); i++) {
-                if (i != cellLocation) {
-                    addEdge(cellLocation, i);
-                }
-            }
-
-            // Same column (find start of current column, traverse column)
-            for (int i = column; i < size.getCellCount(); i += dimension) {
-                if (i != cellLocation) {
-                    addEdge(cellLocation, i);
-                }
-            }
-
-            // Same group
-            Set<Integer> groupCells = new HashSet<>(size.getGroupIndices(cellLocation));
-            for (int groupCellIndex : groupCells) {
-                if (groupCellIndex != cellLocation) { // Exclude current cell (self loop)
-                    addEdge(cellLocation, groupCellIndex);
-                }
-            }
-        }
+        this.size = size;
     }
 
-    // Method to add an undirected edge to the graph
-    private void addEdge(int first, int second) {
-        addDirectedEdge(first, second);
-        addDirectedEdge(second, first);
-    }
-    private void addDirectedEdge(int first, int second) {
-        // Check if adjacent set is initialized
-        if (adjacencyLists.get(first) != null) {
-            adjacencyLists.get(first).add(second);
-        }
-        else {
-            // Initialize adjacent set
-            HashSet<Integer> newSet = new HashSet<>();
-            newSet.add(second);
-            adjacencyLists.put(first, newSet);
-        }
+    /**
+     * Method to get the shared graph for a board size.
+     * @param size Sudoku board width/height
+     * @return graph of the given size
+     */
+    public static SudokuGraph of(BoardSize size) {
+        return GRAPHS.get(size);
     }
 
     /**
-     * Method to get a set of cell locations that potentially conflict with given cell.
+     * Method to get the cell locations that potentially conflict with given cell.
+     * The returned array is shared and must not be modified.
      * @param cellLocation indexed location of a cell
-     * @return a set of indices that potentially conflict with the given cell location
+     * @return indices that potentially conflict with the given cell location
      */
-    public Set<Integer> getConflictingCells(int cellLocation) {
-        return adjacencyLists.get(cellLocation);
+    public int[] getConflictingCells(int cellLocation) {
+        return size.getPeers(cellLocation);
     }
 
     @Override
@@ -0,0 +1,414 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Exact cover solver (Knuth's Algorithm X with Dancing Links).
+ * Each candidate (cell, value) is a matrix row covering four constraints: the
+ * cell is filled, and the value appears once in its row, column, and group.
+ * The node matrix is allocated once and restored after every search, so solvers
+ * are pooled per BoardSize and reused across requests. Each pool keeps at most
+ * two solvers per core (a 16x16 matrix is about 400 KB); solvers released to a
+ * full pool are dropped.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public final class SudokuSolver {
+    private static final int CONSTRAINT_TYPES = 4;
+    private static final int DEADLINE_CHECK_MASK = 1023; // check the clock every 1024 nodes
+    /** Deadline value meaning the search never times out */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final int MAX_POOLED = 2 * Runtime.getRuntime().availableProcessors();
+    private static final Map<BoardSize, Queue<SudokuSolver>> POOLS = new EnumMap<>(BoardSize.class);
+    static {
+        for (BoardSize size : BoardSize.values()) {
+            POOLS.put(size, new ArrayBlockingQueue<>(MAX_POOLED));
+        }
+    }
+
+    private final BoardSize size;
+    private final int dimension;
+
+    // Node matrix (index 0 is the root header, 1..columnCount are column headers)
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] column;
+    private final int[] candidate;
+    private final int[] columnSize;
+    private final int[] rowStart;       // [candidate] -> first node of that row
+    private final boolean[] covered;    // [column] -> covered by a clue
+
+    // Search state
+    private final int[] clueColumns;
+    private final int[] chosen;
+    private int[] board;
+    private int[] solution;
+    private int limit;
+    private int solutions;
+    private long deadline;
+    private JobProgress progress;
+    private long nodesSearched;
+    private boolean timedOut;
+
+    private SudokuSolver(BoardSize size) {
+        this.size = size;
+        this.dimension = size.getDimensions();
+
+        final int cells = size.getCellCount();
+        final int columnCount = CONSTRAINT_TYPES * cells;
+        final int candidateCount = cells * dimension;
+        final int nodeCount = 1 + columnCount + CONSTRAINT_TYPES * candidateCount;
+
+        this.left = new int[nodeCount];
+        this.right = new int[nodeCount];
+        this.up = new int[nodeCount];
+        this.down = new int[nodeCount];
+        this.column = new int[nodeCount];
+        this.candidate = new int[nodeCount];
+        this.columnSize = new int[columnCount + 1];
+        this.rowStart = new int[candidateCount];
+        this.covered = new boolean[columnCount + 1];
+        this.clueColumns = new int[columnCount];
+        this.chosen = new int[cells];
+
+        // Link column headers in a ring through the root
+        for (int header = 0; header <= columnCount; header++) {
+            left[header] = header == 0 ? columnCount : header - 1;
+            right[header] = header == columnCount ? 0 : header + 1;
+            up[header] = header;
+            down[header] = header;
+            column[header] = header;
+        }
+
+        // Add one row of four nodes for every candidate
+        int node = columnCount + 1;
+        for (int cell = 0; cell < cells; cell++) {
+            int row = size.getRow(cell);
+            int col = size.getColumn(cell);
+            int group = size.getGroup(cell);
+            for (int digit = 0; digit < dimension; digit++) {
+                int id = cell * dimension + digit;
+                int first = node;
+                rowStart[id] = first;
+                int[] headers = {
+                        1 + cell,
+                        1 + cells + row * dimension + digit,
+                        1 + 2 * cells + col * dimension + digit,
+                        1 + 3 * cells + group * dimension + digit
+                };
+                for (int header : headers) {
+                    // Append to the bottom of the column
+                    column[node] = header;
+                    candidate[node] = id;
+                    up[node] = up[header];
+                    down[node] = header;
+                    down[up[header]] = node;
+                    up[header] = node;
+                    columnSize[header]++;
+
+                    // Link into the row ring
+                    left[node] = node == first ? node : node - 1;
+                    right[node] = first;
+                    right[left[node]] = node;
+                    left[first] = node;
+                    node++;
+                }
+            }
+        }
+    }
+
+    ////   POOLING   ////
+
+    /**
+     * Method to borrow a solver for the given size. Return it with {@link #release()}.
+     * @param size BoardSize enum containing the dimensions of the board
+     * @return a solver owned by the caller until released
+     */
+    public static SudokuSolver acquire(BoardSize size) {
+        SudokuSolver solver = POOLS.get(size).poll();
+        return solver != null ? solver : new SudokuSolver(size);
+    }
+
+    /**
+     * Method to return this solver to its pool so the matrix can be reused
+     * (or to drop it if the pool is full).
+     */
+    public void release() {
+        board = null;
+        solution = null;
+        progress = null;
+        POOLS.get(size).offer(this);
+    }
+
+    /**
+     * Method to solve a board without a time limit.
+     * @param size BoardSize enum containing the dimensions of the board
+     * @param board array of integers representing a sudoku board (0 = empty)
+     * @return the first solution found, or null if the board cannot be solved
+     */
+    public static int[] solve(BoardSize size, int[] board) {
+        return solve(size, board, NO_DEADLINE);
+    }
+
+    /**
+     * Method to solve a board, giving up once the deadline passes.
+     * @param size BoardSize enum containing the dimensions of the board
+     * @param board array of integers representing a sudoku board (0 = empty)
+     * @param deadline System.nanoTime() value after which the search stops, or NO_DEADLINE
+     * @return the first solution found, or null if unsolvable or out of time
+     */
+    public static int[] solve(BoardSize size, int[] board, long deadline) {
+        return solve(size, board, deadline, null);
+    }
+
+    /**
+     * Method to solve a board, reporting progress and giving up once the deadline
+     * passes or the progress is cancelled.
+     * @param size BoardSize enum containing the dimensions of the board
+     * @param board array of integers representing a sudoku board (0 = empty)
+     * @param deadline System.nanoTime() value after which the search stops, or NO_DEADLINE
+     * @param progress progress to report nodes searched into (may be null)
+     * @return the first solution found, or null if unsolvable, out of time, or cancelled
+     */
+    public static int[] solve(BoardSize size, int[] board, long deadline, JobProgress progress) {
+        SudokuSolver solver = acquire(size);
+        try {
+            int[] solution = new int[size.getCellCount()];
+            return solver.search(board, solution, 1, deadline, progress) == 1 ? solution : null;
+        } finally {
+            solver.release();
+        }
+    }
+
+    /**
+     * Method to count the solutions of a board, stopping once the limit is reached.
+     * @param size BoardSize enum containing the dimensions of the board
+     * @param board array of integers representing a sudoku board (0 = empty)
+     * @param limit maximum number of solutions to look for (2 checks uniqueness)
+     * @return number of solutions found, up to the limit
+     */
+    public static int countSolutions(BoardSize size, int[] board, int limit) {
+        SudokuSolver solver = acquire(size);
+        try {
+            return solver.search(board, null, limit, NO_DEADLINE);
+        } finally {
+            solver.release();
+        }
+    }
+
+
+    ////   SEARCH   ////
+
+    /**
+     * Method to search for solutions of the given board. The matrix is restored
+     * before returning, whether or not the search completed.
+     * @param board array of integers representing a sudoku board (0 = empty)
+     * @param solution array filled with the first solution found (may be null)
+     * @param limit maximum number of solutions to look for
+     * @param deadline System.nanoTime() value after which the search stops, or NO_DEADLINE
+     * @return number of solutions found, up to the limit
+     */
+    public int search(int[] board, int[] solution, int limit, long deadline) {
+        return search(board, solution, limit, deadline, null);
+    }
+
+    /**
+     * Method to search for solutions of the given board, reporting progress. The
+     * search stops early (as if timed out) if the progress is cancelled.
+     * @param board array of integers representing a sudoku board (0 = empty)
+     * @param solution array filled with the first solution found (may be null)
+     * @param limit maximum number of solutions to look for
+     * @param deadline System.nanoTime() value after which the search stops, or NO_DEADLINE
+     * @param progress progress to report nodes searched into (may be null)
+     * @return number of solutions found, up to the limit
+     */
+    public int search(int[] board, int[] solution, int limit, long deadline, JobProgress progress) {
+        if (board.length != size.getCellCount()) {
+            throw new IllegalArgumentException("Board does not match size");
+        }
+        // Checked before any clue is covered, so a bad board leaves the matrix intact
+        for (int value : board) {
+            if (value < 0 || value > dimension) {
+                throw new IllegalArgumentException("Value not on board");
+            }
+        }
+        this.board = board;
+        this.solution = solution;
+        this.limit = limit;
+        this.solutions = 0;
+        this.deadline = deadline;
+        this.progress = progress;
+        this.nodesSearched = 0;
+        this.timedOut = false;
+
+        // Select the row of every clue, unless two clues share a constraint
+        int clueCount = 0;
+        boolean consistent = true;
+        for (int cell = 0; cell < board.length && consistent; cell++) {
+            int value = board[cell];
+            if (value == 0) {
+                continue;
+            }
+            int first = rowStart[cell * dimension + value - 1];
+            int node = first;
+            do {
+                if (covered[column[node]]) {
+                    consistent = false;
+                    break;
+                }
+                node = right[node];
+            } while (node != first);
+
+            if (consistent) {
+                node = first;
+                do {
+                    cover(column[node]);
+                    covered[column[node]] = true;
+                    clueColumns[clueCount++] = column[node];
+                    node = right[node];
+                } while (node != first);
+            }
+        }
+
+        if (consistent) {
+            search(0);
+        }
+        if (progress != null) {
+            // Nodes since the last check
+            progress.addNodes(nodesSearched & DEADLINE_CHECK_MASK);
+        }
+
+        // Restore the matrix for the next search
+        while (clueCount > 0) {
+            int header = clueColumns[--clueCount];
+            covered[header] = false;
+            uncover(header);
+        }
+        return solutions;
+    }
+
+    // Recursive Algorithm X step, returns true when the search should stop
+    private boolean search(int depth) {
+        if (right[0] == 0) {
+            // Every constraint satisfied
+            solutions++;
+            if (solutions == 1 && solution != null) {
+                recordSolution(depth);
+            }
+            return solutions >= limit;
+        }
+
+        nodesSearched++;
+        if ((nodesSearched & DEADLINE_CHECK_MASK) == 0 && shouldStop()) {
+            timedOut = true;
+            return true;
+        }
+
+        // Choose the column with the fewest remaining candidates
+        int best = right[0];
+        for (int header = right[best]; header != 0 && columnSize[best] > 1; header = right[header]) {
+            if (columnSize[header] < columnSize[best]) {
+                best = header;
+            }
+        }
+        if (columnSize[best] == 0) {
+            return false;
+        }
+
+        cover(best);
+        for (int row = down[best]; row != best; row = down[row]) {
+            chosen[depth] = candidate[row];
+            for (int node = right[row]; node != row; node = right[node]) {
+                cover(column[node]);
+            }
+            boolean stop = search(depth + 1);
+            for (int node = left[row]; node != row; node = left[node]) {
+                uncover(column[node]);
+            }
+            if (stop) {
+                uncover(best);
+                return true;
+            }
+        }
+        uncover(best);
+        return false;
+    }
+
+    private void recordSolution(int depth) {
+        System.arraycopy(board, 0, solution, 0, board.length);
+        for (int i = 0; i < depth; i++) {
+            solution[chosen[i] / dimension] = chosen[i] % dimension + 1;
+        }
+    }
+
+    private void cover(int header) {
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+        for (int row = down[header]; row != header; row = down[row]) {
+            for (int node = right[row]; node != row; node = right[node]) {
+                down[up[node]] = down[node];
+                up[down[node]] = up[node];
+                columnSize[column[node]]--;
+            }
+        }
+    }
+
+    private void uncover(int header) {
+        for (int row = up[header]; row != header; row = up[row]) {
+            for (int node = left[row]; node != row; node = left[node]) {
+                columnSize[column[node]]++;
+                down[up[node]] = node;
+                up[down[node]] = node;
+            }
+        }
+        right[left[header]] = header;
+        left[right[header]] = header;
+    }
+
+
+    ////   GETTERS   ////
+
+    /**
+     * @return size of boards this solver accepts
+     */
+    public BoardSize getSize() {
+        return size;
+    }
+
+    // Method to report progress and check the deadline (every 1024 nodes)
+    private boolean shouldStop() {
+        if (progress != null) {
+            progress.addNodes(DEADLINE_CHECK_MASK + 1);
+            if (progress.isCancelled()) {
+                return true;
+            }
+        }
+        return deadline != NO_DEADLINE && System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * @return number of search nodes visited by the last search
+     */
+    public long getNodesSearched() {
+        return nodesSearched;
+    }
+
+    /**
+     * @return true if the last search stopped because the deadline passed (or it was cancelled)
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    @Override
+    public String toString() {
+        return "SudokuSolver{" + size + "}";
+    }
+}
@@ -0,0 +1,138 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for expiring items without scanning them. Each level
+ * is a ring of 64 slots; a slot on level 0 covers one tick and a slot on each
+ * higher level covers 64 slots of the level below. An item waits in the slot
+ * its deadline falls in on the lowest level that reaches that far, and moves
+ * down a level each time the wheel below wraps around, so scheduling and
+ * expiring an item are both O(1) (plus one move per level).
+ * <p>
+ * Any thread may schedule items; they are queued lock-free and placed by the
+ * single thread that advances the wheel.
+ * @param <T> type of item scheduled
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final List<Queue<Entry<T>>[]> wheels = new ArrayList<>();   // [level][slot] -> items
+    private final Queue<Entry<T>> incoming = new ConcurrentLinkedQueue<>();
+    private long currentTick;
+
+    /**
+     * @param tickMillis time covered by one slot of the lowest level
+     * @param maxDelayMillis longest delay the wheel should hold without re-placing items
+     * @param startMillis current time
+     */
+    public TimingWheel(long tickMillis, long maxDelayMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        int levelCount = 1;
+        long range = SLOTS;
+        while (range * tickMillis < maxDelayMillis && levelCount < Long.SIZE / SLOT_BITS) {
+            range <<= SLOT_BITS;
+            levelCount++;
+        }
+        this.levels = levelCount;
+        for (int level = 0; level < levels; level++) {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Queue<Entry<T>>[] slots = new Queue[SLOTS];
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots[slot] = new ArrayDeque<>();
+            }
+            wheels.add(slots);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Method to schedule an item to expire. Safe to call from any thread.
+     * @param item item to expire
+     * @param deadlineMillis time the item expires
+     */
+    public void schedule(T item, long deadlineMillis) {
+        incoming.add(new Entry<>(item, (deadlineMillis + tickMillis - 1) / tickMillis));
+    }
+
+    /**
+     * Method to move the wheel forward, expiring every item whose deadline has
+     * passed. Must only be called by one thread at a time.
+     * @param nowMillis current time
+     * @param expired called with each expired item
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        Entry<T> entry;
+        while ((entry = incoming.poll()) != null) {
+            place(entry, expired);
+        }
+
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Move items down from each level whose lower level just wrapped (highest first)
+            int top = 0;
+            while (top + 1 < levels && (currentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+                top++;
+            }
+            for (int level = top; level > 0; level--) {
+                Queue<Entry<T>> slot = wheels.get(level)[slotIndex(currentTick, level)];
+                while ((entry = slot.poll()) != null) {
+                    place(entry, expired);
+                }
+            }
+
+            Queue<Entry<T>> slot = wheels.get(0)[slotIndex(currentTick, 0)];
+            while ((entry = slot.poll()) != null) {
+                place(entry, expired);
+            }
+        }
+    }
+
+    // Method to put an item in the slot its deadline falls in, or expire it if due
+    private void place(Entry<T> entry, Consumer<T> expired) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            expired.accept(entry.item);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1))) || level == levels - 1) {
+                // Items beyond the top level wait in its furthest slot and are placed again
+                long tick = Math.min(entry.deadlineTick, currentTick + (1L << (SLOT_BITS * (level + 1))) - 1);
+                wheels.get(level)[slotIndex(tick, level)].add(entry);
+                return;
+            }
+        }
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    @Override
+    public String toString() {
+        return "TimingWheel{levels=" + levels + ", tick=" + tickMillis + "ms}";
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long deadlineTick;
+
+        private Entry(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -5,10 +5,6 @@ import edu.greenriver.sdev.sassproject.models.enums.Rank;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
-import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Objects;
 
 /**
@@ -19,8 +15,6 @@ import java.util.Objects;
 @AllArgsConstructor
 @NoArgsConstructor  
 public class User {
-    public static final int TOKEN_PAD_SIZE = 64;
-    public static final int HEX_BASE = 16;
     private String username;
     private String token;
     private long lastGen;
@@ -186,38 +180,13 @@ public class User {
     ////   GENERATION   ////
 
     /**
-     * Method to generate a unique token that expires after 50 min.
-     * Stores the token after generation.
-     * @param timeInterval current interval to be used in identifying the token
+     * Method to store a newly issued token.
+     * @param token token identifying the user's logged-in session
+     * @param issuedAt timestamp the token was issued
      */
-    public void generateToken(int timeInterval) {
-        // Method SOURCE: https://www.geeksforgeeks.org/sha-256-hash-in-java/
-        try {
-            MessageDigest hash = MessageDigest.getInstance("SHA-256");
-            // Make token unique to user
-            String input = username + timeInterval;
-
-            // Generate token
-            byte[] newToken = hash.digest(input.getBytes(StandardCharsets.UTF_8));
-
-            // Convert token to String and return
-            BigInteger number = new BigInteger(1, newToken);
-
-            // Convert message digest into hex value
-            StringBuilder hexString = new StringBuilder(number.toString(HEX_BASE));
-
-            // Pad with leading zeros
-            while (hexString.length() < TOKEN_PAD_SIZE)
-            {
-                hexString.insert(0, '0');
-            }
-
-            this.token = hexString.toString();
-            this.lastGen = System.currentTimeMillis();
-        }
-        catch (NoSuchAlgorithmException e) {
-            System.out.println("Error Generating Token: " + e);
-        }
+    public void assignToken(String token, long issuedAt) {
+        this.token = token;
+        this.lastGen = issuedAt;
     }
 
 
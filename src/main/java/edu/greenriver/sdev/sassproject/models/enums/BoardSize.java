@@ -1,9 +1,9 @@
 package edu.greenriver.sdev.sassproject.models.enums;
 
-import java.util.*;
-
 /**
- * Enumeration to encapsulate and abstract the different game board dimensions
+ * Enumeration to encapsulate and abstract the different game board dimensions.
+ * Each size compiles its board topology (rows, columns, groups and peers) once
+ * into primitive tables that are shared by every board of that size.
  * @author Patrick Lindsay
  * @version 1.0
  */
@@ -15,7 +15,15 @@ public enum BoardSize {
     private final int dimensions;
     private final int root;
     private final int cellCount;
-    private final HashMap<Integer, HashSet<Integer>> groups; // [group][index]
+
+    // Shared lookup tables (never modified after construction)
+    private final int[] rowOf;      // [cell] -> row
+    private final int[] columnOf;   // [cell] -> column
+    private final int[] groupOf;    // [cell] -> group
+    private final int[][] rows;     // [row][index] -> cell
+    private final int[][] columns;  // [column][index] -> cell
+    private final int[][] groups;   // [group][index] -> cell
+    private final int[][] peers;    // [cell][index] -> cell in same row, column, or group
 
     //  0  0  0  1  1  1  2  2  2   0  0  1  1
     //  0  0  0  1  1  1  2  2  2   0  0  1  1
@@ -31,20 +39,30 @@ public enum BoardSize {
         this.dimensions = dimensions;
         this.root = (int) Math.sqrt(dimensions);
         this.cellCount = cellCount;
-        this.groups = new HashMap<>();
 
-        // add sets for each group
-        for (int i = 0; i < dimensions; i++) {
-            this.groups.put(i, new HashSet<>());
-        }
+        this.rowOf = new int[cellCount];
+        this.columnOf = new int[cellCount];
+        this.groupOf = new int[cellCount];
+        this.rows = new int[dimensions][dimensions];
+        this.columns = new int[dimensions][dimensions];
+        this.groups = new int[dimensions][dimensions];
 
+        // Place each cell in its row, column, and group
+        int[] groupFill = new int[dimensions];
         for (int i = 0; i < cellCount; i++) {
+            int row = i / dimensions;
+            int col = i % dimensions;
             int group = findGroup(i);
 
-            // Add index to the associated group
-            groups.get(group).add(i);
+            rowOf[i] = row;
+            columnOf[i] = col;
+            groupOf[i] = group;
+            rows[row][col] = i;
+            columns[col][row] = i;
+            groups[group][groupFill[group]++] = i;
         }
 
+        this.peers = buildPeers();
     }
 
     // Method to find the group associated with a given index
@@ -54,6 +72,47 @@ public enum BoardSize {
         return ((row / root) * root) + (col / root);
     }
 
+    // Method to list every cell sharing a row, column, or group with each cell (ascending order)
+    private int[][] buildPeers() {
+        int peerCount = 3 * (dimensions - 1) - 2 * (root - 1);
+        int[][] table = new int[cellCount][];
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            int[] cellPeers = new int[peerCount];
+            int count = 0;
+            for (int other = 0; other < cellCount; other++) {
+                if (other != cell && (rowOf[other] == rowOf[cell]
+                        || columnOf[other] == columnOf[cell]
+                        || groupOf[other] == groupOf[cell])) {
+                    cellPeers[count++] = other;
+                }
+            }
+            table[cell] = cellPeers;
+        }
+        return table;
+    }
+
+    /**
+     * Method to find the size of a board from its number of cells.
+     * @param cellCount number of cells on the board
+     * @return matching size, or null if no size has that many cells
+     */
+    public static BoardSize fromCellCount(int cellCount) {
+        for (BoardSize size : values()) {
+            if (size.cellCount == cellCount) {
+                return size;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return display name of this size in the format WxH (as used in API paths)
+     */
+    public String getName() {
+        return dimensions + "x" + dimensions;
+    }
+
     /**
      * @return number of rows on the board
      */
@@ -62,17 +121,78 @@ public enum BoardSize {
     }
 
     /**
-     * Method to get a list of the cell indices that are in the same group as the specified index.
+     * @return width/height of a group (square root of the dimensions)
+     */
+    public int getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Method to get the cell indices that are in the same group as the specified index.
+     * The returned array is shared by all boards and must not be modified.
      * @param cellIndex index location of cell
-     * @return list of cells in the group associated with given cell index
+     * @return cells in the group associated with given cell index
      */
-    public Set<Integer> getGroupIndices(int cellIndex) {
-        int groupNumber = findGroup(cellIndex);
+    public int[] getGroupIndices(int cellIndex) {
+        return groups[groupOf[cellIndex]];
+    }
 
-        if (groups.containsKey(groupNumber)) {
-            return groups.get(groupNumber);
-        }
-        return new HashSet<>();
+    /**
+     * Method to get the cells that share a row, column, or group with the given cell.
+     * The returned array is shared by all boards and must not be modified.
+     * @param cellIndex index location of cell
+     * @return cells that could conflict with the given cell (excluding itself)
+     */
+    public int[] getPeers(int cellIndex) {
+        return peers[cellIndex];
+    }
+
+    /**
+     * @param cellIndex index location of cell
+     * @return row containing the cell
+     */
+    public int getRow(int cellIndex) {
+        return rowOf[cellIndex];
+    }
+
+    /**
+     * @param cellIndex index location of cell
+     * @return column containing the cell
+     */
+    public int getColumn(int cellIndex) {
+        return columnOf[cellIndex];
+    }
+
+    /**
+     * @param cellIndex index location of cell
+     * @return group containing the cell
+     */
+    public int getGroup(int cellIndex) {
+        return groupOf[cellIndex];
+    }
+
+    /**
+     * @param row row number
+     * @return cells in the given row (shared, must not be modified)
+     */
+    public int[] getRowCells(int row) {
+        return rows[row];
+    }
+
+    /**
+     * @param column column number
+     * @return cells in the given column (shared, must not be modified)
+     */
+    public int[] getColumnCells(int column) {
+        return columns[column];
+    }
+
+    /**
+     * @param group group number
+     * @return cells in the given group (shared, must not be modified)
+     */
+    public int[] getGroupCells(int group) {
+        return groups[group];
     }
 
     /**
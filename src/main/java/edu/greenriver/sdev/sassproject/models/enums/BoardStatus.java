@@ -0,0 +1,15 @@
+package edu.greenriver.sdev.sassproject.models.enums;
+
+/**
+ * Outcome of verifying a submitted board.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public enum BoardStatus {
+    /** Every cell is filled and no cells conflict */
+    SOLVED,
+    /** Board matches the size but has empty or conflicting cells */
+    UNSOLVED,
+    /** Board does not match the size or has values out of range */
+    INVALID
+}
@@ -0,0 +1,45 @@
+package edu.greenriver.sdev.sassproject.models.enums;
+
+/**
+ * Difficulty of a puzzle, based on the hardest solving technique it requires.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public enum Difficulty {
+    EASY("Easy"),
+    MEDIUM("Medium"),
+    HARD("Hard"),
+    EXPERT("Expert");
+
+    private final String difficultyName;
+
+    Difficulty(String difficultyName) {
+        this.difficultyName = difficultyName;
+    }
+
+    /**
+     * @return Display name of this difficulty
+     */
+    public String getName() {
+        return difficultyName;
+    }
+
+    /**
+     * Method to find a difficulty by name, ignoring case.
+     * @param name name of the difficulty (easy, medium, hard, expert)
+     * @return matching difficulty, or null if not recognized
+     */
+    public static Difficulty fromName(String name) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.difficultyName.equalsIgnoreCase(name)) {
+                return difficulty;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "Difficulty{" + difficultyName + "}";
+    }
+}
@@ -0,0 +1,30 @@
+package edu.greenriver.sdev.sassproject.models.enums;
+
+/**
+ * State of a background job.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public enum JobStatus {
+    /** Waiting for a worker */
+    QUEUED,
+    /** Running on a worker */
+    RUNNING,
+    /** Finished with a result */
+    DONE,
+    /** Finished: the board has no solution */
+    NO_SOLUTION,
+    /** Stopped because the deadline passed */
+    TIMED_OUT,
+    /** Stopped because it was cancelled */
+    CANCELLED,
+    /** Stopped by an unexpected error */
+    FAILED;
+
+    /**
+     * @return true if the job will not change again
+     */
+    public boolean isFinished() {
+        return this != QUEUED && this != RUNNING;
+    }
+}
@@ -0,0 +1,13 @@
+package edu.greenriver.sdev.sassproject.models.enums;
+
+/**
+ * Kind of work a background job does.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public enum JobType {
+    /** Solve a submitted board */
+    SOLVE,
+    /** Generate a new puzzle */
+    GENERATE
+}
@@ -0,0 +1,47 @@
+package edu.greenriver.sdev.sassproject.models.enums;
+
+/**
+ * Human solving techniques, ordered from simplest to hardest.
+ * Each technique maps to the puzzle difficulty it implies.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public enum Technique {
+    NAKED_SINGLE("Naked Single", Difficulty.EASY),
+    HIDDEN_SINGLE("Hidden Single", Difficulty.EASY),
+    POINTING("Pointing", Difficulty.MEDIUM),
+    BOX_LINE_REDUCTION("Box/Line Reduction", Difficulty.MEDIUM),
+    NAKED_PAIR("Naked Pair", Difficulty.MEDIUM),
+    HIDDEN_PAIR("Hidden Pair", Difficulty.MEDIUM),
+    NAKED_TRIPLE("Naked Triple", Difficulty.HARD),
+    X_WING("X-Wing", Difficulty.HARD),
+    XY_WING("XY-Wing", Difficulty.HARD),
+    TRIAL_AND_ERROR("Trial and Error", Difficulty.EXPERT);
+
+    private final String techniqueName;
+    private final Difficulty difficulty;
+
+    Technique(String techniqueName, Difficulty difficulty) {
+        this.techniqueName = techniqueName;
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * @return Display name of this technique
+     */
+    public String getName() {
+        return techniqueName;
+    }
+
+    /**
+     * @return difficulty of a puzzle that needs this technique
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    @Override
+    public String toString() {
+        return "Technique{" + techniqueName + "}";
+    }
+}
@@ -0,0 +1,47 @@
+package edu.greenriver.sdev.sassproject.models.enums;
+
+/**
+ * Fields of a user that a user listing can be limited to.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public enum UserField {
+    USERNAME("username"),
+    RANK("rank"),
+    WINS("wins"),
+    GAMES_WON("gamesWon"),
+    PREFERENCES("preferences"),
+    SETTINGS("settings");
+
+    private final String fieldName;
+
+    UserField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    /**
+     * @return Name of this field in a listing
+     */
+    public String getName() {
+        return fieldName;
+    }
+
+    /**
+     * Method to find a field by name, ignoring case.
+     * @param name name of the field (username, rank, wins, gamesWon, preferences, settings)
+     * @return matching field, or null if not recognized
+     */
+    public static UserField fromName(String name) {
+        for (UserField field : values()) {
+            if (field.fieldName.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "UserField{" + fieldName + "}";
+    }
+}
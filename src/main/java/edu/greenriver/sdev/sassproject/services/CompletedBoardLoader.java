@@ -0,0 +1,72 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.ImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Seeds the solved board collection at startup from newline-delimited board
+ * files (one JSON array per line, any mix of sizes). Files ending in .gz are
+ * decompressed as they are read.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Component
+public class CompletedBoardLoader implements ApplicationRunner {
+    private static final Logger LOG = LoggerFactory.getLogger(CompletedBoardLoader.class);
+
+    private final SudokuService sudokuService;
+    private final String[] files;
+    private final boolean canonical;
+
+    /**
+     * @param sudokuService service holding the solved board collection
+     * @param files paths of the board files to load (none by default)
+     * @param canonical false to store the boards as given instead of by canonical form
+     */
+    public CompletedBoardLoader(SudokuService sudokuService,
+                                @Value("${sudoku.import.files:}") String[] files,
+                                @Value("${sudoku.import.canonical:true}") boolean canonical) {
+        this.sudokuService = sudokuService;
+        this.files = files;
+        this.canonical = canonical;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String file : files) {
+            if (file.isBlank()) {
+                continue;
+            }
+            Path path = Path.of(file.trim());
+            long start = System.nanoTime();
+            try (InputStream in = open(path)) {
+                ImportResult result = sudokuService.importCompleteBoards(null, in, canonical);
+                LOG.info("Loaded {} in {} ms: {}", path,
+                        (System.nanoTime() - start) / 1_000_000, result);
+            } catch (IOException e) {
+                LOG.warn("Could not load solved boards from {}", path, e);
+            }
+        }
+    }
+
+    private InputStream open(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        return path.toString().endsWith(".gz") ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    @Override
+    public String toString() {
+        return "CompletedBoardLoader";
+    }
+}
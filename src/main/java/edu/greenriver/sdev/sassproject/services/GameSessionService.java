@@ -0,0 +1,152 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.Board;
+import edu.greenriver.sdev.sassproject.models.GameSession;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.Difficulty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds live game sessions. Sessions that go unused for the idle timeout are
+ * removed by a periodic background sweep.
+ * <p>
+ * Each client (by address) holds at most the per-client limit of sessions. A
+ * client at its limit gives up its own least recently used session for the new
+ * one rather than being refused, so one caller cannot fill the server: the
+ * overall limit is only reached by many clients at once.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Service
+public class GameSessionService {
+
+    private final SudokuService sudokuService;
+    private final int maxSessions;
+    private final int maxPerClient;
+    private final long idleTimeoutNanos;
+    private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
+    // Sessions of each client. A client's list is only read and changed inside
+    // compute calls on its key, which scan at most maxPerClient sessions
+    private final Map<String, List<GameSession>> sessionsByClient = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the session service. Starts the idle session sweep.
+     * @param sudokuService service providing puzzles
+     * @param backgroundExecutor executor that runs the sweep
+     * @param maxSessions most sessions held at once
+     * @param maxPerClient most sessions held at once for one client
+     * @param idleTimeoutMillis time a session may go unused before it is removed
+     */
+    public GameSessionService(SudokuService sudokuService,
+                              ScheduledExecutorService backgroundExecutor,
+                              @Value("${sudoku.session.max:10000}") int maxSessions,
+                              @Value("${sudoku.session.max-per-client:20}") int maxPerClient,
+                              @Value("${sudoku.session.idle-timeout-ms:1800000}") long idleTimeoutMillis) {
+        this.sudokuService = sudokuService;
+        this.maxSessions = maxSessions;
+        this.maxPerClient = Math.max(1, maxPerClient);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+
+        long sweepMillis = Math.max(1000, idleTimeoutMillis / 4);
+        backgroundExecutor.scheduleWithFixedDelay(this::removeIdleSessions,
+                sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to start a new game on a puzzle of the given size. A client already
+     * holding the per-client limit of sessions loses its least recently used one.
+     * @param size size of the board
+     * @param difficulty difficulty of puzzle wanted, or null for any difficulty
+     * @param client address of the client starting the game
+     * @return the new session, or null if the overall session limit has been reached
+     */
+    public GameSession createSession(BoardSize size, Difficulty difficulty, String client) {
+        Board board = new Board(size, sudokuService.getSolvableBoard(size, difficulty));
+        GameSession session = new GameSession(UUID.randomUUID().toString(), client, board);
+        GameSession[] evicted = new GameSession[1];
+        boolean[] added = new boolean[1];
+        sessionsByClient.compute(client, (key, clientSessions) -> {
+            List<GameSession> list = clientSessions != null ? clientSessions : new ArrayList<>();
+            if (list.size() >= maxPerClient) {
+                // Make room by dropping this client's least recently used session
+                GameSession oldest = list.get(0);
+                for (GameSession candidate : list) {
+                    if (candidate.getLastAccess() < oldest.getLastAccess()) {
+                        oldest = candidate;
+                    }
+                }
+                list.remove(oldest);
+                evicted[0] = oldest;
+            }
+            else if (sessions.size() >= maxSessions) {
+                return clientSessions;
+            }
+            list.add(session);
+            added[0] = true;
+            return list;
+        });
+        if (!added[0]) {
+            return null;
+        }
+        if (evicted[0] != null) {
+            sessions.remove(evicted[0].getId());
+        }
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * @param id unique identifier of the session
+     * @return the session, or null if it does not exist or has expired
+     */
+    public GameSession getSession(String id) {
+        GameSession session = sessions.get(id);
+        if (session != null) {
+            session.touch();
+        }
+        return session;
+    }
+
+    /**
+     * @param id unique identifier of the session
+     * @return the removed session, or null if it did not exist
+     */
+    public GameSession removeSession(String id) {
+        GameSession session = sessions.remove(id);
+        if (session != null) {
+            forget(session);
+        }
+        return session;
+    }
+
+    private void removeIdleSessions() {
+        long now = System.nanoTime();
+        for (GameSession session : sessions.values()) {
+            if (now - session.getLastAccess() > idleTimeoutNanos && sessions.remove(session.getId(), session)) {
+                forget(session);
+            }
+        }
+    }
+
+    // Method to take a removed session off its client's list
+    private void forget(GameSession session) {
+        sessionsByClient.computeIfPresent(session.getClient(), (client, list) -> {
+            list.remove(session);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "GameSessionService";
+    }
+}
@@ -0,0 +1,315 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.Job;
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.SudokuSolver;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.JobStatus;
+import edu.greenriver.sdev.sassproject.models.enums.JobType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs solve and generate requests as background jobs, so the request that
+ * submits one returns at once with the job's ID. Jobs run on a fixed number of
+ * worker threads with a bounded queue; when both are full new jobs are refused
+ * rather than piling up. Every job has a deadline (capped by the maximum
+ * timeout) and may be cancelled, and the search checks both every 1024 nodes,
+ * so no job can hold a worker for long.
+ * <p>
+ * Clients follow a job over Server-Sent Events: a "progress" event with the
+ * job (nodes searched, clues removed) every progress interval while it runs,
+ * then one "done" event with its final state and result. Finished jobs are
+ * kept for the retention time so their result can be fetched.
+ * <p>
+ * Progress events, timing out queued jobs, and removing old jobs run on the
+ * service's own scheduler thread rather than the shared background executor,
+ * so pool refills (which generate puzzles for seconds at a time) cannot delay
+ * them, and a slow client's event send cannot delay a refill.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Service
+public class JobService {
+
+    private static final String PROGRESS_EVENT = "progress";
+    private static final String DONE_EVENT = "done";
+    private static final long EMITTER_GRACE_MILLIS = 5000;
+
+    private final PuzzleGenerator generator;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService scheduler;
+    private final int maxJobs;
+    private final long maxTimeoutMillis;
+    private final long retentionNanos;
+    private final Map<String, Tracked> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the job service. Starts the workers and the progress updates.
+     * @param generator generator used by generate jobs
+     * @param registry registry to publish job metrics to
+     * @param workerCount number of jobs run at once
+     * @param queueCapacity number of jobs that may wait for a worker
+     * @param maxJobs most jobs held at once (running, waiting, or finished)
+     * @param maxTimeoutMillis longest time a job may take
+     * @param retentionMillis time a finished job is kept
+     * @param progressIntervalMillis time between progress events
+     */
+    public JobService(PuzzleGenerator generator,
+                      MeterRegistry registry,
+                      @Value("${sudoku.jobs.workers:2}") int workerCount,
+                      @Value("${sudoku.jobs.queue-capacity:64}") int queueCapacity,
+                      @Value("${sudoku.jobs.max:1000}") int maxJobs,
+                      @Value("${sudoku.jobs.max-timeout-ms:30000}") long maxTimeoutMillis,
+                      @Value("${sudoku.jobs.retention-ms:300000}") long retentionMillis,
+                      @Value("${sudoku.jobs.progress-interval-ms:250}") long progressIntervalMillis) {
+        this.generator = generator;
+        this.maxJobs = maxJobs;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.retentionNanos = TimeUnit.MILLISECONDS.toNanos(retentionMillis);
+
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "sudoku-job-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "sudoku-job-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("sudoku.jobs.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Jobs running")
+                .register(registry);
+        Gauge.builder("sudoku.jobs.queued", workers, executor -> executor.getQueue().size())
+                .description("Jobs waiting for a worker")
+                .register(registry);
+
+        scheduler.scheduleWithFixedDelay(this::update,
+                progressIntervalMillis, progressIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to start a job.
+     * @param type kind of work
+     * @param size size of the board
+     * @param board board to solve (null when generating)
+     * @param timeoutMillis time the job may take (0 or less, or over the maximum, for the maximum)
+     * @return the queued job, or null if the service has no room for another job
+     */
+    public Job submit(JobType type, BoardSize size, int[] board, long timeoutMillis) {
+        if (jobs.size() >= maxJobs) {
+            return null;
+        }
+        long timeout = timeoutMillis <= 0 ? maxTimeoutMillis : Math.min(timeoutMillis, maxTimeoutMillis);
+        Job job = new Job(UUID.randomUUID().toString(), type, size, board == null ? null : board.clone(),
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+        Tracked tracked = new Tracked(job);
+        jobs.put(job.getId(), tracked);
+        try {
+            tracked.future = workers.submit(() -> run(tracked));
+        } catch (RejectedExecutionException e) {
+            // Every worker busy and the queue full
+            jobs.remove(job.getId());
+            return null;
+        }
+        return job;
+    }
+
+    /**
+     * @param id unique identifier of the job
+     * @return the job, or null if it does not exist or has been removed
+     */
+    public Job getJob(String id) {
+        Tracked tracked = jobs.get(id);
+        return tracked == null ? null : tracked.job;
+    }
+
+    /**
+     * Method to cancel a job. A running job stops within 1024 search nodes.
+     * @param id unique identifier of the job
+     * @return the job, or null if it does not exist
+     */
+    public Job cancel(String id) {
+        Tracked tracked = jobs.get(id);
+        if (tracked == null) {
+            return null;
+        }
+        if (tracked.job.finish(JobStatus.CANCELLED, null)) {
+            Future<?> future = tracked.future;
+            if (future != null) {
+                // Frees the queue slot if it has not started
+                future.cancel(false);
+            }
+            publishDone(tracked);
+        }
+        return tracked.job;
+    }
+
+    /**
+     * Method to follow a job's progress. The emitter gets the job's current state
+     * at once, progress events while it runs, and a done event when it finishes.
+     * @param id unique identifier of the job
+     * @return emitter for the job's events, or null if the job does not exist
+     */
+    public SseEmitter subscribe(String id) {
+        Tracked tracked = jobs.get(id);
+        if (tracked == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(maxTimeoutMillis + EMITTER_GRACE_MILLIS);
+        emitter.onCompletion(() -> tracked.listeners.remove(emitter));
+        emitter.onTimeout(() -> tracked.listeners.remove(emitter));
+        emitter.onError(error -> tracked.listeners.remove(emitter));
+        tracked.listeners.add(emitter);
+
+        if (tracked.job.getStatus().isFinished()) {
+            // Finished before (or while) subscribing
+            send(tracked, emitter, DONE_EVENT);
+            emitter.complete();
+        }
+        else {
+            send(tracked, emitter, PROGRESS_EVENT);
+        }
+        return emitter;
+    }
+
+    // Method to run a job on a worker thread
+    private void run(Tracked tracked) {
+        Job job = tracked.job;
+        if (!job.start()) {
+            // Cancelled or timed out while queued
+            return;
+        }
+        if (System.nanoTime() - job.getDeadline() > 0) {
+            finish(tracked, JobStatus.TIMED_OUT, null);
+            return;
+        }
+
+        try {
+            int[] result = switch (job.getType()) {
+                case SOLVE -> SudokuSolver.solve(job.getBoardSize(), job.getBoard(), job.getDeadline(),
+                        job.getProgress());
+                case GENERATE -> generator.generate(job.getBoardSize(), job.getDeadline(), job.getProgress());
+            };
+
+            if (job.getProgress().isCancelled()) {
+                finish(tracked, JobStatus.CANCELLED, null);
+            }
+            else if (result != null) {
+                finish(tracked, JobStatus.DONE, result);
+            }
+            else if (System.nanoTime() - job.getDeadline() > 0) {
+                finish(tracked, JobStatus.TIMED_OUT, null);
+            }
+            else {
+                finish(tracked, JobStatus.NO_SOLUTION, null);
+            }
+        } catch (RuntimeException e) {
+            finish(tracked, JobStatus.FAILED, null);
+        }
+    }
+
+    private void finish(Tracked tracked, JobStatus status, int[] result) {
+        if (tracked.job.finish(status, result)) {
+            publishDone(tracked);
+        }
+    }
+
+    // Method to send progress, time out jobs still queued at their deadline, and remove old jobs
+    private void update() {
+        long now = System.nanoTime();
+        for (Tracked tracked : jobs.values()) {
+            Job job = tracked.job;
+            if (job.getStatus() == JobStatus.QUEUED && now - job.getDeadline() > 0) {
+                if (job.finish(JobStatus.TIMED_OUT, null)) {
+                    Future<?> future = tracked.future;
+                    if (future != null) {
+                        future.cancel(false);
+                    }
+                    publishDone(tracked);
+                }
+            }
+            else if (job.getStatus().isFinished()) {
+                if (now - job.getFinishedAt() > retentionNanos) {
+                    jobs.remove(job.getId());
+                }
+            }
+            else {
+                for (SseEmitter emitter : tracked.listeners) {
+                    send(tracked, emitter, PROGRESS_EVENT);
+                }
+            }
+        }
+    }
+
+    // Method to send the final state to every listener and close their streams
+    private void publishDone(Tracked tracked) {
+        for (SseEmitter emitter : tracked.listeners) {
+            send(tracked, emitter, DONE_EVENT);
+            emitter.complete();
+        }
+    }
+
+    private void send(Tracked tracked, SseEmitter emitter, String event) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(tracked.job, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away, or the stream is already complete
+            tracked.listeners.remove(emitter);
+        }
+    }
+
+    /**
+     * Method to cancel every job and stop the workers and the progress updates.
+     */
+    @PreDestroy
+    public void close() {
+        for (Tracked tracked : jobs.values()) {
+            tracked.job.getProgress().cancel();
+        }
+        workers.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "JobService";
+    }
+
+    // A job, the task running it, and the clients following it
+    private static final class Tracked {
+        private final Job job;
+        private final List<SseEmitter> listeners = new CopyOnWriteArrayList<>();
+        private volatile Future<?> future;
+
+        private Tracked(Job job) {
+            this.job = job;
+        }
+    }
+}
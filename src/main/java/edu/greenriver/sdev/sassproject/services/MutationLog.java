@@ -0,0 +1,688 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.greenriver.sdev.sassproject.models.PackedBoard;
+import edu.greenriver.sdev.sassproject.models.User;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of changes to users and solved boards, so they survive a
+ * restart. Callers encode their change and queue it while holding their locks,
+ * which takes a few microseconds, then release the locks and call
+ * {@link #awaitDurable()}. A single writer thread drains the queue and writes
+ * everything queued with one write and one fsync, then releases every caller
+ * waiting on that batch (group commit). The writer only sleeps while the queue
+ * is empty and is woken by the next change, so a change is acknowledged one
+ * write and one fsync after it was queued (plus the rest of a sync already
+ * running, which changes queued meanwhile share). Acknowledgement therefore
+ * takes as long as an fsync on the log's disk, typically milliseconds; only
+ * queueing takes microseconds.
+ * <p>
+ * The queue holds at most a fixed number of changes. Once it is full, callers
+ * wait for the writer to make room, so a slow disk slows requests down instead
+ * of growing the heap.
+ * <p>
+ * If a write or sync fails, the log stops: the error is logged, callers waiting
+ * on the failed batch and every later change get an exception, and
+ * {@link #getFailure()} reports it (the persistence health check turns DOWN).
+ * Changes are never dropped silently.
+ * <p>
+ * The log is split into numbered segments. A snapshot numbered N holds the full
+ * state as of the start of segment N, so older segments and snapshots are
+ * deleted once it is written. Recovery loads the newest complete snapshot, then
+ * replays every later segment in order, stopping a segment at its first torn
+ * or corrupt record.
+ * <p>
+ * Every change must be made while holding {@link #mutationLock()}, so a snapshot
+ * can switch segments at a point where each change is both applied and logged.
+ * The lock is striped by thread, so changes on different threads do not contend.
+ * <p>
+ * Record format: payload length (int), CRC32 of type and payload (int), type (byte), payload.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Service
+public class MutationLog implements Mutations {
+    private static final byte USER_SAVED = 1;
+    private static final byte USER_DELETED = 2;
+    private static final byte BOARD_ADDED = 3;
+    private static final byte SNAPSHOT_END = 4;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+    private static final int HEADER_BYTES = 9;
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long DURABLE_TIMEOUT_SECONDS = 60;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final Logger LOG = LoggerFactory.getLogger(MutationLog.class);
+
+    private final Path directory;
+    private final int queueCapacity;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ReentrantReadWriteLock[] stripes;
+    // Held by recovery, snapshots, and close. Not synchronized: snapshots wait on
+    // the writer and do file I/O, which would pin a virtual thread's carrier
+    private final ReentrantLock stateLock = new ReentrantLock();
+
+    // Records (Pending) and segment switches (Roll) waiting for the writer thread,
+    // and permits for the records the queue has room for
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final Semaphore room;
+    // Last record each thread queued, until it waits for it to be synced
+    private final ThreadLocal<Pending> lastQueued = new ThreadLocal<>();
+    private volatile boolean running;
+    private volatile IOException failure;
+    private volatile long bytesSinceSnapshot;
+    // Set while the writer thread is about to sleep, so the next change wakes it
+    private volatile boolean writerIdle;
+    private volatile Thread writer;
+    private long generation;
+
+    /**
+     * @param directory directory holding the log and snapshots (blank to keep nothing)
+     * @param queueCapacity most changes waiting to be written before callers wait for room
+     */
+    public MutationLog(@Value("${sudoku.persistence.dir:}") String directory,
+                       @Value("${sudoku.persistence.queue-capacity:65536}") int queueCapacity) {
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+        this.queueCapacity = queueCapacity;
+        this.room = new Semaphore(queueCapacity);
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        this.stripes = new ReentrantReadWriteLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * @return a log that keeps nothing (for tests and benchmarks)
+     */
+    public static MutationLog disabled() {
+        return new MutationLog("", 1);
+    }
+
+    /**
+     * @return true if changes are written to disk
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * @return the error that stopped the log, or null if it is writing normally
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Method to get the lock to hold while applying and logging a change.
+     * Shared by every change made on the same stripe, and only held
+     * exclusively while a snapshot switches segments.
+     * @return lock for the calling thread
+     */
+    public Lock mutationLock() {
+        int stripe = (int) Thread.currentThread().getId() & (stripes.length - 1);
+        return stripes[stripe].readLock();
+    }
+
+    ////   RECOVERY   ////
+
+    /**
+     * Method to replay the newest snapshot and the log after it, then start
+     * writing a new segment. Must be called once, before any change is logged.
+     * @param target receives every recovered change in order
+     * @return number of records replayed
+     */
+    public long recover(Mutations target) {
+        stateLock.lock();
+        try {
+            if (directory == null || writer != null) {
+                return 0;
+            }
+            try {
+                Files.createDirectories(directory);
+                long replayed = 0;
+
+                // Newest complete snapshot
+                List<Long> snapshots = generations(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+                long start = 0;
+                for (int i = snapshots.size() - 1; i >= 0; i--) {
+                    long count = replay(file(SNAPSHOT_PREFIX, snapshots.get(i), SNAPSHOT_SUFFIX), target, true);
+                    if (count >= 0) {
+                        start = snapshots.get(i);
+                        replayed += count;
+                        break;
+                    }
+                }
+
+                // Then each later segment in order
+                long last = start;
+                for (long segment : generations(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                    if (segment >= start) {
+                        replayed += Math.max(0, replay(file(SEGMENT_PREFIX, segment, SEGMENT_SUFFIX), target, false));
+                        last = Math.max(last, segment);
+                    }
+                }
+
+                generation = last + 1;
+                FileChannel channel = openSegment(generation);
+                running = true;
+                writer = new Thread(() -> writeLoop(channel), "sudoku-mutation-log");
+                writer.setDaemon(true);
+                writer.start();
+                return replayed;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not recover from " + directory, e);
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    // Method to replay one file, returning the records read (or -1 for a snapshot with no end marker)
+    private long replay(Path path, Mutations target, boolean snapshot) throws IOException {
+        long count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_BYTES))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                int checksum = in.readInt();
+                byte type = in.readByte();
+                if (length < 0 || length > BUFFER_BYTES * 64) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+
+                crc.reset();
+                crc.update(type);
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                if (type == SNAPSHOT_END) {
+                    return count;
+                }
+                apply(type, payload, target);
+                count++;
+            }
+        } catch (EOFException e) {
+            // Torn record at the end of the file
+        }
+        return snapshot ? -1 : count;
+    }
+
+    private void apply(byte type, byte[] payload, Mutations target) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        switch (type) {
+            case USER_SAVED -> {
+                String username = in.readUTF();
+                String passwordHash = in.readUTF();
+                byte[] json = new byte[in.readInt()];
+                in.readFully(json);
+                target.userSaved(username, passwordHash, mapper.readValue(json, User.class));
+            }
+            case USER_DELETED -> target.userDeleted(in.readUTF());
+            case BOARD_ADDED -> {
+                BoardSize size = BoardSize.values()[in.readByte()];
+                int[] cells = new int[size.getCellCount()];
+                for (int cell = 0; cell < cells.length; cell++) {
+                    cells[cell] = in.readByte();
+                }
+                target.boardAdded(PackedBoard.of(size, cells));
+            }
+            default -> throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    ////   LOGGING   ////
+
+    @Override
+    public void userSaved(String username, String passwordHash, User user) {
+        if (directory != null) {
+            enqueue(encodeUser(username, passwordHash, user));
+        }
+    }
+
+    @Override
+    public void userDeleted(String username) {
+        if (directory != null) {
+            enqueue(encodeUserDeleted(username));
+        }
+    }
+
+    @Override
+    public void boardAdded(PackedBoard board) {
+        if (directory != null) {
+            enqueue(encodeBoard(board));
+        }
+    }
+
+    /**
+     * Method to wait until the last change queued by this thread (and so every
+     * change queued before it) is synced to disk. Call after releasing any lock
+     * held while queueing. Returns at once if this thread has nothing waiting.
+     * If this throws, the caller should undo the change in memory: it is not known
+     * to be saved, though it may have reached the disk and be replayed after a restart.
+     * @throws UncheckedIOException if the log failed before the change was synced,
+     * or did not sync it within a minute
+     */
+    public void awaitDurable() {
+        Pending pending = lastQueued.get();
+        if (pending == null) {
+            return;
+        }
+        lastQueued.remove();
+        try {
+            pending.durable.orTimeout(DURABLE_TIMEOUT_SECONDS, TimeUnit.SECONDS).join();
+        } catch (CompletionException e) {
+            IOException cause = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            throw new UncheckedIOException("Change was not written to the mutation log", cause);
+        }
+    }
+
+    // Method to queue a record for the writer thread, failing if the log has stopped.
+    // Waits for room if the queue is full
+    private void enqueue(byte[] record) {
+        if (!running) {
+            throw notWritable();
+        }
+        room.acquireUninterruptibly();
+        if (!running) {
+            // Woken by a failure: pass the permit on to the next caller waiting
+            room.release();
+            throw notWritable();
+        }
+        Pending pending = new Pending(record);
+        offer(pending);
+        if (!running) {
+            // Stopped while queueing: the writer may already have drained the queue
+            pending.durable.completeExceptionally(notWritable().getCause());
+            throw notWritable();
+        }
+        lastQueued.set(pending);
+    }
+
+    // Method to queue an item, waking the writer thread if it is sleeping
+    private void offer(Object item) {
+        queue.add(item);
+        Thread idle = writer;
+        if (writerIdle && idle != null) {
+            LockSupport.unpark(idle);
+        }
+    }
+
+    private UncheckedIOException notWritable() {
+        IOException cause = failure != null ? failure : new IOException("Mutation log is closed");
+        return new UncheckedIOException("Mutation log is not writable", cause);
+    }
+
+    ////   SNAPSHOTS   ////
+
+    /**
+     * @return bytes logged since the last snapshot
+     */
+    public long getBytesSinceSnapshot() {
+        return bytesSinceSnapshot;
+    }
+
+    /**
+     * Method to write the full state to a new snapshot and delete the log
+     * segments it replaces.
+     * @param exporter writes every stored user and board to the given sink
+     */
+    public void snapshot(Consumer<Mutations> exporter) {
+        stateLock.lock();
+        try {
+            if (directory == null || !running) {
+                return;
+            }
+            // Switch segments while no change is part way through
+            Roll roll = new Roll(generation + 1);
+            for (ReentrantReadWriteLock stripe : stripes) {
+                stripe.writeLock().lock();
+            }
+            try {
+                offer(roll);
+            } finally {
+                for (ReentrantReadWriteLock stripe : stripes) {
+                    stripe.writeLock().unlock();
+                }
+            }
+            generation = roll.generation;
+            try {
+                roll.done.orTimeout(1, TimeUnit.MINUTES).join();
+            } catch (CompletionException e) {
+                // Writer thread failed
+                return;
+            }
+
+            Path snapshot = file(SNAPSHOT_PREFIX, generation, SNAPSHOT_SUFFIX);
+            Path temporary = directory.resolve(snapshot.getFileName() + ".tmp");
+            try {
+                try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, BUFFER_BYTES))) {
+                    exporter.accept(new Mutations() {
+                        @Override
+                        public void userSaved(String username, String passwordHash, User user) {
+                            writeRecord(out, encodeUser(username, passwordHash, user));
+                        }
+
+                        @Override
+                        public void userDeleted(String username) {
+                            writeRecord(out, encodeUserDeleted(username));
+                        }
+
+                        @Override
+                        public void boardAdded(PackedBoard board) {
+                            writeRecord(out, encodeBoard(board));
+                        }
+                    });
+                    writeRecord(out, new byte[]{SNAPSHOT_END});
+                    out.flush();
+                    file.getFD().sync();
+                }
+                Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+                // Everything before this snapshot is no longer needed
+                for (long old : generations(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                    if (old < generation) {
+                        Files.deleteIfExists(file(SEGMENT_PREFIX, old, SEGMENT_SUFFIX));
+                    }
+                }
+                for (long old : generations(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                    if (old < generation) {
+                        Files.deleteIfExists(file(SNAPSHOT_PREFIX, old, SNAPSHOT_SUFFIX));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write snapshot " + snapshot, e);
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    ////   WRITER THREAD   ////
+
+    // Method to write queued records in batches, syncing once per batch
+    private void writeLoop(FileChannel initial) {
+        FileChannel channel = initial;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        CRC32 crc = new CRC32();
+        List<Pending> batch = new ArrayList<>();
+        try {
+            while (running || !queue.isEmpty()) {
+                Object item = queue.poll();
+                if (item == null) {
+                    // Queue drained: commit the batch, then sleep until a change is queued.
+                    // Checked again after writerIdle is set, so a change queued meanwhile is not missed
+                    flush(channel, buffer, batch);
+                    writerIdle = true;
+                    if (running && queue.isEmpty()) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    writerIdle = false;
+                }
+                else if (item instanceof Pending pending) {
+                    room.release();
+                    byte[] record = pending.record;
+                    if (buffer.remaining() < HEADER_BYTES + record.length) {
+                        flush(channel, buffer, batch);
+                    }
+                    if (buffer.remaining() < HEADER_BYTES + record.length) {
+                        // Larger than the buffer, write on its own
+                        ByteBuffer large = ByteBuffer.allocate(HEADER_BYTES + record.length);
+                        frame(large, record, crc);
+                        large.flip();
+                        while (large.hasRemaining()) {
+                            channel.write(large);
+                        }
+                    }
+                    else {
+                        frame(buffer, record, crc);
+                    }
+                    batch.add(pending);
+                    bytesSinceSnapshot += HEADER_BYTES + record.length;
+                }
+                else if (item instanceof Roll roll) {
+                    flush(channel, buffer, batch);
+                    channel.close();
+                    channel = openSegment(roll.generation);
+                    bytesSinceSnapshot = 0;
+                    roll.done.complete(null);
+                }
+            }
+            flush(channel, buffer, batch);
+            channel.close();
+        } catch (IOException e) {
+            failure = e;
+            running = false;
+            LOG.error("Mutation log write failed in {}, changes can no longer be saved", directory, e);
+            // Fail every caller waiting on a change that may not be synced,
+            // and release any snapshot waiting on a segment switch
+            for (Pending pending : batch) {
+                pending.durable.completeExceptionally(e);
+            }
+            Object item;
+            while ((item = queue.poll()) != null) {
+                if (item instanceof Pending pending) {
+                    pending.durable.completeExceptionally(e);
+                    room.release();
+                }
+                else if (item instanceof Roll roll) {
+                    roll.done.completeExceptionally(e);
+                }
+            }
+            // Wake callers waiting for room, so they see the failure
+            room.release(queueCapacity);
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Already failed
+            }
+        }
+    }
+
+    // Method to write and sync the buffer, then release the callers waiting on the batch
+    private void flush(FileChannel channel, ByteBuffer buffer, List<Pending> batch) throws IOException {
+        if (buffer.position() > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        channel.force(false);
+        for (Pending pending : batch) {
+            pending.durable.complete(null);
+        }
+        batch.clear();
+    }
+
+    // Method to add the length and checksum to a record (whose first byte is its type)
+    private static void frame(ByteBuffer buffer, byte[] record, CRC32 crc) {
+        crc.reset();
+        crc.update(record);
+        buffer.putInt(record.length - 1);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(record);
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] record) {
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            out.writeInt(record.length - 1);
+            out.writeInt((int) crc.getValue());
+            out.write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Method to stop the writer thread once everything queued is written and synced.
+     */
+    @PreDestroy
+    public void close() {
+        stateLock.lock();
+        try {
+            if (writer == null) {
+                return;
+            }
+            running = false;
+            LockSupport.unpark(writer);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    ////   ENCODING   ////
+
+    private byte[] encodeUser(String username, String passwordHash, User user) {
+        try {
+            byte[] json = mapper.writeValueAsBytes(user);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length + 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(USER_SAVED);
+            out.writeUTF(username);
+            out.writeUTF(passwordHash);
+            out.writeInt(json.length);
+            out.write(json);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encodeUserDeleted(String username) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(USER_DELETED);
+            out.writeUTF(username);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encodeBoard(PackedBoard board) {
+        BoardSize size = board.getSize();
+        byte[] record = new byte[2 + size.getCellCount()];
+        record[0] = BOARD_ADDED;
+        record[1] = (byte) size.ordinal();
+        for (int cell = 0; cell < size.getCellCount(); cell++) {
+            record[2 + cell] = (byte) board.get(cell);
+        }
+        return record;
+    }
+
+    ////   FILES   ////
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(file(SEGMENT_PREFIX, number, SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path file(String prefix, long number, String suffix) {
+        return directory.resolve(String.format("%s%016d%s", prefix, number, suffix));
+    }
+
+    // Method to list the numbers of the files with the given prefix and suffix, in order
+    private List<Long> generations(String prefix, String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (var files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> {
+                        try {
+                            numbers.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                        } catch (NumberFormatException ignored) {
+                            // Not one of ours
+                        }
+                    });
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    @Override
+    public String toString() {
+        return "MutationLog{" + (directory == null ? "disabled" : directory) + "}";
+    }
+
+    // A record waiting to be written, completed once it is synced
+    private static final class Pending {
+        private final byte[] record;
+        private final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        private Pending(byte[] record) {
+            this.record = record;
+        }
+    }
+
+    // Marker telling the writer thread to start a new segment
+    private static final class Roll {
+        private final long generation;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Roll(long generation) {
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PackedBoard;
+import edu.greenriver.sdev.sassproject.models.User;
+
+/**
+ * Changes to the stored users and solved boards, as written to the mutation log,
+ * read back when it is replayed, and written out when a snapshot is taken.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public interface Mutations {
+
+    /**
+     * @param username lowercase username
+     * @param passwordHash the user's password hash (never the password itself)
+     * @param user the user as it is now stored
+     */
+    void userSaved(String username, String passwordHash, User user);
+
+    /**
+     * @param username lowercase username
+     */
+    void userDeleted(String username);
+
+    /**
+     * @param board solved board in canonical form
+     */
+    void boardAdded(PackedBoard board);
+}
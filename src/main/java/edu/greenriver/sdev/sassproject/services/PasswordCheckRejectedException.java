@@ -0,0 +1,18 @@
+package edu.greenriver.sdev.sassproject.services;
+
+/**
+ * Thrown when a password cannot be hashed because too many checks for the same
+ * user are already running. The password was not checked, so the client should
+ * try again later rather than treat it as wrong.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class PasswordCheckRejectedException extends RuntimeException {
+
+    /**
+     * @param username user whose password could not be checked
+     */
+    public PasswordCheckRejectedException(String username) {
+        super("Too many password checks for " + username);
+    }
+}
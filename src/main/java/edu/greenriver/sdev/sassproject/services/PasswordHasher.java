@@ -0,0 +1,80 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Hashes passwords so that only hashes are held in memory and written to the
+ * mutation log. Hashes are PBKDF2-HMAC-SHA256 with a random salt per password,
+ * stored as "pbkdf2-sha256$iterations$salt$hash" (salt and hash in base64), so
+ * the iteration count can be raised later without breaking stored hashes.
+ * <p>
+ * Hashing is deliberately slow (tens of milliseconds), so callers check a
+ * token first and only hash when a password was sent, outside any record lock.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public final class PasswordHasher {
+    private static final String PREFIX = "pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int ITERATIONS = 100_000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * @param password password to hash
+     * @return the stored form of the password (never the password itself)
+     */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + ITERATIONS + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(derive(password, salt, ITERATIONS));
+    }
+
+    /**
+     * Method to check a password against a stored hash, in constant time for
+     * hashes of the same length.
+     * @param password password sent by the client (may be null)
+     * @param stored stored form from {@link #hash(String)}
+     * @return true if the password matches
+     */
+    public static boolean matches(String password, String stored) {
+        if (password == null || stored == null || !stored.startsWith(PREFIX)) {
+            return false;
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[0]);
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            return MessageDigest.isEqual(expected, derive(password, salt, iterations));
+        } catch (IllegalArgumentException e) {
+            // Malformed iteration count or base64
+            return false;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
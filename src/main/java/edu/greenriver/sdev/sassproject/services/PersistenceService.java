@@ -0,0 +1,111 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PackedBoard;
+import edu.greenriver.sdev.sassproject.models.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restores users and solved boards from the mutation log when the application
+ * starts, and periodically writes a snapshot so the log stays short. Reports
+ * DOWN on the health endpoint once the log has stopped writing.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Service
+public class PersistenceService implements HealthIndicator {
+    private static final Logger LOG = LoggerFactory.getLogger(PersistenceService.class);
+
+    private final MutationLog mutationLog;
+    private final UserService userService;
+    private final SudokuService sudokuService;
+
+    /**
+     * Constructor for the persistence service. Replays the log into the user
+     * and sudoku services, then schedules snapshots.
+     * @param mutationLog log of user and board changes
+     * @param userService service holding users
+     * @param sudokuService service holding solved boards
+     * @param backgroundExecutor executor that writes snapshots
+     * @param snapshotIntervalMillis how often to check whether a snapshot is due
+     * @param snapshotMinBytes log size since the last snapshot that makes a snapshot due
+     */
+    public PersistenceService(MutationLog mutationLog,
+                              UserService userService,
+                              SudokuService sudokuService,
+                              ScheduledExecutorService backgroundExecutor,
+                              @Value("${sudoku.persistence.snapshot-interval-ms:600000}") long snapshotIntervalMillis,
+                              @Value("${sudoku.persistence.snapshot-min-bytes:1048576}") long snapshotMinBytes) {
+        this.mutationLog = mutationLog;
+        this.userService = userService;
+        this.sudokuService = sudokuService;
+
+        if (!mutationLog.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long replayed = mutationLog.recover(new Mutations() {
+            @Override
+            public void userSaved(String username, String passwordHash, User user) {
+                userService.restoreUser(username, passwordHash, user);
+            }
+
+            @Override
+            public void userDeleted(String username) {
+                userService.restoreDeletedUser(username);
+            }
+
+            @Override
+            public void boardAdded(PackedBoard board) {
+                sudokuService.restoreCompleteBoard(board);
+            }
+        });
+        LOG.info("Recovered {} records from {} in {} ms", replayed, mutationLog,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        backgroundExecutor.scheduleWithFixedDelay(() -> {
+            if (mutationLog.getBytesSinceSnapshot() >= snapshotMinBytes) {
+                snapshot();
+            }
+        }, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to write every stored user and solved board to a new snapshot.
+     */
+    public void snapshot() {
+        try {
+            mutationLog.snapshot(sink -> {
+                userService.exportUsers(sink);
+                sudokuService.exportCompleteBoards(sink);
+            });
+        } catch (RuntimeException e) {
+            LOG.warn("Snapshot failed", e);
+        }
+    }
+
+    /**
+     * @return DOWN with the error if the mutation log has failed, UP otherwise
+     */
+    @Override
+    public Health health() {
+        IOException failure = mutationLog.getFailure();
+        if (failure != null) {
+            return Health.down(failure).withDetail("log", mutationLog.toString()).build();
+        }
+        return Health.up().withDetail("log", mutationLog.toString()).build();
+    }
+
+    @Override
+    public String toString() {
+        return "PersistenceService";
+    }
+}
@@ -0,0 +1,418 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PackedBoard;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.Difficulty;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File-backed catalogue of puzzles, too large to hold on the heap. Each size
+ * and difficulty has its own file of fixed-width records (a packed board's
+ * words), so puzzle n sits at a computed offset and no per-puzzle index is
+ * kept. Files are memory-mapped in regions, and a draw reads the record's
+ * words straight from the mapping (the page cache), so the puzzles themselves
+ * are never held on the heap.
+ * <p>
+ * A puzzle already on the shelf is not added again. Each shelf has an index
+ * file beside it: an open-addressing hash table of record numbers, also
+ * memory-mapped, with room for twice max-per-file entries so probes stay
+ * short. A lookup compares the whole record, so distinct puzzles never clash,
+ * and nothing is held on the heap per puzzle. The index is created at its full
+ * size (a sparse file, so untouched slots take no disk) and is only rebuilt
+ * from the records if it is missing or was sized for another max-per-file.
+ * <p>
+ * File format: magic (int), version (int), size (int), difficulty (int),
+ * puzzle count (long), padded to HEADER_BYTES, then the records.
+ * Index format: magic (int), version (int), slot count (long), padded to
+ * HEADER_BYTES, then one int per slot: record number + 1, or 0 if empty.
+ * A record is written and counted before its slot is filled, so a slot never
+ * names a record that is not there (one past the count is treated as empty).
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Service
+public class PuzzleLibrary {
+    private static final int MAGIC = 0x5355444C;    // "SUDL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int COUNT_OFFSET = 16;
+    private static final long REGION_BYTES = 64L << 20;
+    private static final int INDEX_MAGIC = 0x53554449;    // "SUDI"
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_SLOTS_OFFSET = 8;
+    private static final int SLOT_REGION_BITS = 24;       // 64 MB of slots per mapping
+    private static final long MAX_PER_FILE = 1L << 29;
+
+    private final Path directory;
+    private final long maxPerFile;
+    private final Map<BoardSize, Map<Difficulty, Shelf>> shelves = new EnumMap<>(BoardSize.class);
+
+    /**
+     * Constructor for the puzzle library. Maps every existing library file.
+     * @param directory directory holding the library files (blank for no library)
+     * @param maxPerFile most puzzles kept per size and difficulty (at most 2^29)
+     */
+    public PuzzleLibrary(@Value("${sudoku.library.dir:}") String directory,
+                         @Value("${sudoku.library.max-per-file:10000000}") long maxPerFile) {
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+        this.maxPerFile = maxPerFile;
+        if (this.directory == null) {
+            return;
+        }
+        if (maxPerFile < 0 || maxPerFile > MAX_PER_FILE) {
+            throw new IllegalArgumentException("sudoku.library.max-per-file must be 0 to " + MAX_PER_FILE);
+        }
+        try {
+            Files.createDirectories(this.directory);
+            for (BoardSize size : BoardSize.values()) {
+                Map<Difficulty, Shelf> bySize = new EnumMap<>(Difficulty.class);
+                for (Difficulty difficulty : Difficulty.values()) {
+                    bySize.put(difficulty, new Shelf(size, difficulty));
+                }
+                shelves.put(size, bySize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open puzzle library in " + directory, e);
+        }
+    }
+
+    /**
+     * @return a library with no files, that stores nothing
+     */
+    public static PuzzleLibrary disabled() {
+        return new PuzzleLibrary("", 0);
+    }
+
+    /**
+     * @return true if the library is backed by files
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * @param size size of puzzle
+     * @param difficulty difficulty of puzzle
+     * @return number of puzzles stored for the size and difficulty
+     */
+    public long count(BoardSize size, Difficulty difficulty) {
+        return directory == null ? 0 : shelves.get(size).get(difficulty).count;
+    }
+
+    /**
+     * Method to read a puzzle by its position in the library.
+     * @param size size of puzzle
+     * @param difficulty difficulty of puzzle
+     * @param ordinal position of the puzzle (0 to count - 1)
+     * @return the puzzle
+     * @throws IndexOutOfBoundsException if there is no puzzle at the position
+     */
+    public int[] get(BoardSize size, Difficulty difficulty, long ordinal) {
+        if (ordinal < 0 || ordinal >= count(size, difficulty)) {
+            throw new IndexOutOfBoundsException("No puzzle " + ordinal);
+        }
+        return shelves.get(size).get(difficulty).read(ordinal);
+    }
+
+    /**
+     * Method to draw a random puzzle.
+     * @param size size of puzzle
+     * @param difficulty difficulty of puzzle, or null for any difficulty
+     * @return a puzzle, or null if the library has none of that size and difficulty
+     */
+    public int[] draw(BoardSize size, Difficulty difficulty) {
+        if (directory == null) {
+            return null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (difficulty != null) {
+            Shelf shelf = shelves.get(size).get(difficulty);
+            long count = shelf.count;
+            return count == 0 ? null : shelf.read(random.nextLong(count));
+        }
+
+        // Any difficulty: pick a puzzle uniformly across every shelf of the size
+        Map<Difficulty, Shelf> bySize = shelves.get(size);
+        long total = 0;
+        for (Shelf shelf : bySize.values()) {
+            total += shelf.count;
+        }
+        if (total == 0) {
+            return null;
+        }
+        long ordinal = random.nextLong(total);
+        for (Shelf shelf : bySize.values()) {
+            long count = shelf.count;
+            if (ordinal < count) {
+                return shelf.read(ordinal);
+            }
+            ordinal -= count;
+        }
+        // Only reached if a shelf grew between the two passes
+        return null;
+    }
+
+    /**
+     * Method to add a puzzle to the library.
+     * @param size size of puzzle
+     * @param difficulty difficulty of puzzle
+     * @param puzzle puzzle with a unique solution
+     * @return true if added, false if there is no library, it is full for the size and
+     * difficulty, or it already holds the puzzle
+     */
+    public boolean add(BoardSize size, Difficulty difficulty, int[] puzzle) {
+        if (directory == null) {
+            return false;
+        }
+        return shelves.get(size).get(difficulty).append(PackedBoard.of(size, puzzle));
+    }
+
+    /**
+     * Method to write every mapped change to disk and close the files.
+     */
+    @PreDestroy
+    public void close() {
+        for (Map<Difficulty, Shelf> bySize : shelves.values()) {
+            for (Shelf shelf : bySize.values()) {
+                shelf.close();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PuzzleLibrary{" + (directory == null ? "disabled" : directory) + "}";
+    }
+
+    // The file of puzzles for one size and difficulty
+    private final class Shelf {
+        private final BoardSize size;
+        private final int words;
+        private final int recordBytes;
+        private final long recordsPerRegion;
+        private final FileChannel channel;
+        private final MappedByteBuffer header;
+        private final Lock lock = new ReentrantLock();    // held while appending (may map a region)
+        private final long slotCount;
+        private final FileChannel indexChannel;
+        private final MappedByteBuffer[] slotRegions;     // written while holding lock
+        private volatile MappedByteBuffer[] regions;
+        private volatile long count;
+
+        private Shelf(BoardSize size, Difficulty difficulty) throws IOException {
+            this.size = size;
+            this.words = PackedBoard.wordCount(size);
+            this.recordBytes = words * Long.BYTES;
+            this.recordsPerRegion = REGION_BYTES / recordBytes;
+
+            Path path = directory.resolve(size.getName() + "-" + difficulty.getName().toLowerCase() + ".puzzles");
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+            if (header.getInt(0) != MAGIC) {
+                // New file
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putInt(8, size.ordinal());
+                header.putInt(12, difficulty.ordinal());
+                header.putLong(COUNT_OFFSET, 0);
+            }
+            else if (header.getInt(4) != VERSION || header.getInt(8) != size.ordinal()
+                    || header.getInt(12) != difficulty.ordinal()) {
+                throw new IOException("Not a " + size.getName() + " " + difficulty.getName() + " library: " + path);
+            }
+
+            this.count = header.getLong(COUNT_OFFSET);
+            int regionCount = (int) ((count + recordsPerRegion - 1) / recordsPerRegion);
+            MappedByteBuffer[] mapped = new MappedByteBuffer[regionCount];
+            for (int region = 0; region < regionCount; region++) {
+                mapped[region] = mapRegion(region);
+            }
+            this.regions = mapped;
+
+            // Index of the records, at least half empty
+            this.slotCount = Math.max(16, Long.highestOneBit(Math.max(1, maxPerFile) * 2 - 1) << 1);
+            Path indexPath = directory.resolve(path.getFileName() + ".index");
+            if (Files.exists(indexPath) && !indexMatches(indexPath)) {
+                Files.delete(indexPath);
+            }
+            boolean rebuild = !Files.exists(indexPath) && count > 0;
+            this.indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer indexHeader = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            indexHeader.putInt(0, INDEX_MAGIC);
+            indexHeader.putInt(4, INDEX_VERSION);
+            indexHeader.putLong(INDEX_SLOTS_OFFSET, slotCount);
+            long slotsPerRegion = Math.min(slotCount, 1L << SLOT_REGION_BITS);
+            this.slotRegions = new MappedByteBuffer[(int) (slotCount / slotsPerRegion)];
+            for (int region = 0; region < slotRegions.length; region++) {
+                slotRegions[region] = indexChannel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_BYTES + region * slotsPerRegion * Integer.BYTES, slotsPerRegion * Integer.BYTES);
+            }
+
+            if (rebuild) {
+                // Only when the index was lost or resized; normally nothing is read at startup
+                long[] packed = new long[words];
+                long[] scratch = new long[words];
+                for (long ordinal = 0; ordinal < count; ordinal++) {
+                    readWords(ordinal, packed);
+                    long slot = findSlot(packed, scratch);
+                    if (getSlot(slot) == 0) {
+                        putSlot(slot, ordinal);
+                    }
+                }
+            }
+        }
+
+        // Method to check that an index file was written for this shelf's slot count
+        private boolean indexMatches(Path indexPath) throws IOException {
+            try (FileChannel existing = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(INDEX_SLOTS_OFFSET + Long.BYTES);
+                while (header.hasRemaining() && existing.read(header) >= 0) {
+                    // Read the whole header
+                }
+                return header.position() == header.capacity() && header.getInt(0) == INDEX_MAGIC
+                        && header.getInt(4) == INDEX_VERSION && header.getLong(INDEX_SLOTS_OFFSET) == slotCount;
+            }
+        }
+
+        // Method to find the slot holding a record equal to packed, or the empty slot where it belongs
+        private long findSlot(long[] packed, long[] scratch) {
+            long mask = slotCount - 1;
+            for (long slot = hash(packed) & mask; ; slot = (slot + 1) & mask) {
+                int entry = getSlot(slot);
+                if (entry == 0) {
+                    return slot;
+                }
+                readWords(entry - 1, scratch);
+                if (Arrays.equals(packed, scratch)) {
+                    return slot;
+                }
+            }
+        }
+
+        // Method to read a slot: record number + 1, or 0 if empty (or naming a record never counted)
+        private int getSlot(long slot) {
+            int entry = slotRegions[(int) (slot >>> SLOT_REGION_BITS)]
+                    .getInt((int) (slot & ((1L << SLOT_REGION_BITS) - 1)) * Integer.BYTES);
+            return entry > count ? 0 : entry;
+        }
+
+        private void putSlot(long slot, long ordinal) {
+            slotRegions[(int) (slot >>> SLOT_REGION_BITS)]
+                    .putInt((int) (slot & ((1L << SLOT_REGION_BITS) - 1)) * Integer.BYTES, (int) (ordinal + 1));
+        }
+
+        private MappedByteBuffer mapRegion(int region) throws IOException {
+            long start = HEADER_BYTES + region * recordsPerRegion * recordBytes;
+            return channel.map(FileChannel.MapMode.READ_WRITE, start, recordsPerRegion * recordBytes);
+        }
+
+        // Method to unpack a record straight from its mapped region
+        private int[] read(long ordinal) {
+            long[] packed = new long[words];
+            readWords(ordinal, packed);
+            return PackedBoard.fromWords(size, packed).toArray();
+        }
+
+        private void readWords(long ordinal, long[] packed) {
+            MappedByteBuffer region = regions[(int) (ordinal / recordsPerRegion)];
+            int offset = (int) (ordinal % recordsPerRegion) * recordBytes;
+            for (int word = 0; word < words; word++) {
+                packed[word] = region.getLong(offset + word * Long.BYTES);
+            }
+        }
+
+        private boolean append(PackedBoard board) {
+            lock.lock();
+            try {
+                long ordinal = count;
+                if (ordinal >= maxPerFile) {
+                    return false;
+                }
+                long[] packed = new long[words];
+                for (int word = 0; word < words; word++) {
+                    packed[word] = board.getWord(word);
+                }
+                long slot = findSlot(packed, new long[words]);
+                if (getSlot(slot) != 0) {
+                    // Already on the shelf
+                    return false;
+                }
+                int region = (int) (ordinal / recordsPerRegion);
+                try {
+                    if (region == regions.length) {
+                        // Grow the file by one region
+                        MappedByteBuffer[] grown = Arrays.copyOf(regions, region + 1);
+                        grown[region] = mapRegion(region);
+                        regions = grown;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not grow puzzle library", e);
+                }
+
+                MappedByteBuffer mapped = regions[region];
+                int offset = (int) (ordinal % recordsPerRegion) * recordBytes;
+                for (int word = 0; word < words; word++) {
+                    mapped.putLong(offset + word * Long.BYTES, packed[word]);
+                }
+                // Publish the record only after it is written, and index it only once published
+                header.putLong(COUNT_OFFSET, ordinal + 1);
+                count = ordinal + 1;
+                putSlot(slot, ordinal);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void close() {
+            lock.lock();
+            try {
+                try {
+                    for (MappedByteBuffer region : regions) {
+                        region.force();
+                    }
+                    header.force();
+                    channel.close();
+                    for (MappedByteBuffer region : slotRegions) {
+                        region.force();
+                    }
+                    indexChannel.close();
+                } catch (IOException e) {
+                    // Closing anyway
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Method to hash a record's words to pick its first index slot
+    private static long hash(long[] packed) {
+        long hash = 0;
+        for (long word : packed) {
+            hash = (hash ^ word) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 29;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,271 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.DifficultyGrader;
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.RingBuffer;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.Difficulty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps a ready supply of generated puzzles for each board size so requests never
+ * wait on generation. Puzzles are graded once by a background task as they are
+ * generated and stored in a lock-free ring buffer per size and difficulty. The
+ * task runs whenever a buffer drops below the low watermark and tops buffers up
+ * to the high watermark, generating at most a fixed number of puzzles per run
+ * since rare difficulties may take many puzzles to find.
+ * <p>
+ * Some difficulties are rare or impossible for a size (every 4x4 puzzle grades
+ * easy). When a full run adds nothing to a bucket that needed puzzles, that
+ * bucket is skipped for a backoff time that doubles with each empty run (up to
+ * an hour), so unreachable buckets do not keep the refill task generating.
+ * Puzzles generated for a difficulty that is already full are kept in the
+ * puzzle library rather than dropped.
+ * Pool depth, generation rate, and misses (draws from an empty pool) are published
+ * as metrics.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Service
+public class PuzzlePool {
+
+    private static final long BACKOFF_BASE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long BACKOFF_MAX_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final PuzzleGenerator generator;
+    private final ScheduledExecutorService executor;
+    private final PuzzleLibrary library;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final int maxPerRefill;
+
+    private final Map<BoardSize, Map<Difficulty, RingBuffer<int[]>>> pools = new EnumMap<>(BoardSize.class);
+    private final Map<BoardSize, AtomicBoolean> refilling = new EnumMap<>(BoardSize.class);
+    // [difficulty] -> System.nanoTime() until which the bucket is skipped (0 if not), per size
+    private final Map<BoardSize, AtomicLongArray> skipUntil = new EnumMap<>(BoardSize.class);
+    // [difficulty] -> empty runs in a row, per size (only used by the size's refill task)
+    private final Map<BoardSize, int[]> emptyRuns = new EnumMap<>(BoardSize.class);
+    private final Map<BoardSize, Timer> generationTimers = new EnumMap<>(BoardSize.class);
+    private final Map<BoardSize, Counter> misses = new EnumMap<>(BoardSize.class);
+
+    /**
+     * Constructor for the puzzle pool. Starts filling every pool in the background.
+     * @param generator generator used to create puzzles
+     * @param backgroundExecutor executor that runs the refill tasks
+     * @param library library that overflow puzzles are kept in
+     * @param registry registry to publish pool metrics to
+     * @param lowWatermark pool depth that triggers a refill
+     * @param highWatermark pool depth a refill stops at
+     * @param maxPerRefill most puzzles generated by one refill
+     * @param checkIntervalMillis how often every pool is checked for a refill
+     */
+    public PuzzlePool(PuzzleGenerator generator,
+                      ScheduledExecutorService backgroundExecutor,
+                      PuzzleLibrary library,
+                      MeterRegistry registry,
+                      @Value("${sudoku.pool.low-watermark:8}") int lowWatermark,
+                      @Value("${sudoku.pool.high-watermark:32}") int highWatermark,
+                      @Value("${sudoku.pool.max-per-refill:64}") int maxPerRefill,
+                      @Value("${sudoku.pool.check-interval-ms:1000}") long checkIntervalMillis) {
+        this.generator = generator;
+        this.executor = backgroundExecutor;
+        this.library = library;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = Math.max(lowWatermark, highWatermark);
+        this.maxPerRefill = maxPerRefill;
+
+        for (BoardSize size : BoardSize.values()) {
+            Map<Difficulty, RingBuffer<int[]>> buckets = new EnumMap<>(Difficulty.class);
+            for (Difficulty difficulty : Difficulty.values()) {
+                RingBuffer<int[]> pool = new RingBuffer<>(this.highWatermark);
+                buckets.put(difficulty, pool);
+                registry.gauge("sudoku.pool.depth",
+                        Tags.of("size", size.getName(), "difficulty", difficulty.getName()),
+                        pool, RingBuffer::size);
+            }
+            pools.put(size, buckets);
+            refilling.put(size, new AtomicBoolean());
+            skipUntil.put(size, new AtomicLongArray(Difficulty.values().length));
+            emptyRuns.put(size, new int[Difficulty.values().length]);
+            generationTimers.put(size, Timer.builder("sudoku.pool.generation")
+                    .description("Puzzles generated and graded to refill the pool")
+                    .tags("size", size.getName())
+                    .register(registry));
+            misses.put(size, Counter.builder("sudoku.pool.misses")
+                    .description("Draws that found the pool empty")
+                    .tags("size", size.getName())
+                    .register(registry));
+        }
+
+        executor.scheduleWithFixedDelay(this::checkPools, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to take a puzzle of any difficulty from the pool. Never blocks;
+     * schedules a refill when the pool runs low.
+     * @param size size of puzzle to draw
+     * @return a puzzle with a unique solution, or null if the pool is empty
+     */
+    public int[] draw(BoardSize size) {
+        // Start at a random difficulty so draws are spread across the buckets
+        Difficulty[] difficulties = Difficulty.values();
+        int start = ThreadLocalRandom.current().nextInt(difficulties.length);
+        for (int i = 0; i < difficulties.length; i++) {
+            int[] puzzle = take(size, difficulties[(start + i) % difficulties.length]);
+            if (puzzle != null) {
+                return puzzle;
+            }
+        }
+        misses.get(size).increment();
+        return null;
+    }
+
+    /**
+     * Method to take a puzzle of the given difficulty from the pool. Never blocks;
+     * schedules a refill when the pool runs low.
+     * @param size size of puzzle to draw
+     * @param difficulty difficulty of puzzle to draw
+     * @return a puzzle with a unique solution, or null if none of that difficulty is ready
+     */
+    public int[] draw(BoardSize size, Difficulty difficulty) {
+        int[] puzzle = take(size, difficulty);
+        if (puzzle == null) {
+            misses.get(size).increment();
+        }
+        return puzzle;
+    }
+
+    /**
+     * @param size size of puzzle
+     * @param difficulty difficulty of puzzle
+     * @return number of puzzles of the given difficulty ready in the pool
+     */
+    public int getDepth(BoardSize size, Difficulty difficulty) {
+        return pools.get(size).get(difficulty).size();
+    }
+
+    private int[] take(BoardSize size, Difficulty difficulty) {
+        RingBuffer<int[]> pool = pools.get(size).get(difficulty);
+        int[] puzzle = pool.poll();
+        if (pool.size() < lowWatermark && !isSkipped(size, difficulty)) {
+            requestRefill(size);
+        }
+        return puzzle;
+    }
+
+    private void checkPools() {
+        for (BoardSize size : BoardSize.values()) {
+            if (needsRefill(size)) {
+                requestRefill(size);
+            }
+        }
+    }
+
+    private boolean needsRefill(BoardSize size) {
+        for (Map.Entry<Difficulty, RingBuffer<int[]>> bucket : pools.get(size).entrySet()) {
+            if (bucket.getValue().size() < lowWatermark && !isSkipped(size, bucket.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isFull(BoardSize size) {
+        for (Map.Entry<Difficulty, RingBuffer<int[]>> bucket : pools.get(size).entrySet()) {
+            if (bucket.getValue().size() < highWatermark && !isSkipped(size, bucket.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Method to check whether a bucket is backing off after runs that found none of its difficulty
+    private boolean isSkipped(BoardSize size, Difficulty difficulty) {
+        long until = skipUntil.get(size).get(difficulty.ordinal());
+        return until != 0 && System.nanoTime() - until < 0;
+    }
+
+    // Method to start a refill unless one is already running for the size
+    private void requestRefill(BoardSize size) {
+        AtomicBoolean running = refilling.get(size);
+        if (running.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> refill(size));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                running.set(false);
+            }
+        }
+    }
+
+    // Method to generate and grade puzzles into their difficulty buckets
+    private void refill(BoardSize size) {
+        Map<Difficulty, RingBuffer<int[]>> buckets = pools.get(size);
+        Timer timer = generationTimers.get(size);
+        int[] added = new int[Difficulty.values().length];
+        int generated = 0;
+        try {
+            for (; generated < maxPerRefill && !isFull(size); generated++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                long start = System.nanoTime();
+                int[] puzzle = generator.generate(size);
+                Difficulty difficulty = DifficultyGrader.grade(size, puzzle).getDifficulty();
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+                // Kept in the library if that difficulty is already full
+                RingBuffer<int[]> pool = buckets.get(difficulty);
+                if (pool.size() >= highWatermark || !pool.offer(puzzle)) {
+                    library.add(size, difficulty, puzzle);
+                }
+                else {
+                    added[difficulty.ordinal()]++;
+                }
+            }
+            updateBackoff(size, added, generated == maxPerRefill);
+        } finally {
+            refilling.get(size).set(false);
+        }
+    }
+
+    // Method to stop skipping buckets a run added to, and (after a full run) skip low buckets
+    // it added nothing to, doubling the time for each empty run in a row
+    private void updateBackoff(BoardSize size, int[] added, boolean fullRun) {
+        AtomicLongArray until = skipUntil.get(size);
+        int[] empty = emptyRuns.get(size);
+        long now = System.nanoTime();
+        for (Difficulty difficulty : Difficulty.values()) {
+            int i = difficulty.ordinal();
+            if (added[i] > 0) {
+                empty[i] = 0;
+                until.set(i, 0);
+            }
+            else if (fullRun && pools.get(size).get(difficulty).size() < lowWatermark
+                    && !isSkipped(size, difficulty)) {
+                long backoff = Math.min(BACKOFF_BASE_NANOS << Math.min(empty[i], 16), BACKOFF_MAX_NANOS);
+                empty[i]++;
+                until.set(i, now + backoff);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PuzzlePool";
+    }
+}
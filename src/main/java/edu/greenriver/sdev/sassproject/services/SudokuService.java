@@ -1,22 +1,60 @@
 package edu.greenriver.sdev.sassproject.services;
 
-import edu.greenriver.sdev.sassproject.models.Board;
+import edu.greenriver.sdev.sassproject.models.BoardVerification;
+import edu.greenriver.sdev.sassproject.models.CanonicalForm;
+import edu.greenriver.sdev.sassproject.models.ConflictDetector;
+import edu.greenriver.sdev.sassproject.models.BoardStreamReader;
+import edu.greenriver.sdev.sassproject.models.DifficultyGrader;
+import edu.greenriver.sdev.sassproject.models.ImportResult;
+import edu.greenriver.sdev.sassproject.models.PackedBoard;
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.ServedPuzzle;
+import edu.greenriver.sdev.sassproject.models.SudokuSolver;
 import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.BoardStatus;
+import edu.greenriver.sdev.sassproject.models.enums.Difficulty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.IntStream;
 
 /**
  * This service provides sudoku boards, validates solutions, and checks for
- * conflicts on a provided board.
+ * conflicts on a provided board. Safe to call from many request threads: the
+ * seed puzzles never change after construction and solved boards are held in
+ * concurrent sets.
+ * Verification and conflict checks are timed and counted per board size, and
+ * the number of seed and solved boards stored is published as metrics.
  * @author Patrick Lindsay
  * @version 1.0
  */
 @Service
 public class SudokuService {
 
+    private static final long SOLVE_TIMEOUT_MS = 2000;
+    private static final long ID_CHECK_TIMEOUT_MS = 250;
+    private static final int MAX_ID_CHECKS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int IMPORT_CHUNK_SIZE = 4096;
+
     private static final int[] BOARD_4x4 = new int[]
             {
                     1, 2, 3, 4,
@@ -56,51 +94,237 @@ public class SudokuService {
                     0, 14,  0,  0,  0, 11,  0,  2,  0,  0, 13,  3,  5,  0,  0, 12,
             };
 
-    private HashMap<BoardSize, HashSet<Board>> solvableBoards = new HashMap<>();
+    private final PuzzleGenerator generator;
+    private final PuzzlePool puzzlePool;
+    private final PuzzleLibrary puzzleLibrary;
+    private final ForkJoinPool verificationPool;
+    private final MutationLog mutationLog;
+    // Permits for checking that a board fetched by ID has one solution
+    private final Semaphore idChecks = new Semaphore(MAX_ID_CHECKS);
+
+    // Seed puzzles (hand-picked, known to be solvable), served when the pool is empty.
+    // Stored boards are packed, at 4-5 bits per cell. Never modified after construction
+    private final Map<BoardSize, List<PackedBoard>> solvableBoards = new EnumMap<>(BoardSize.class);
     {
-        // Initialize sets for each size
-        HashSet<Board> solvable4x4 = new HashSet<>();
-        HashSet<Board> solvable9x9 = new HashSet<>();
-        HashSet<Board> solvable16x16 = new HashSet<>();
+        // Initialize lists for each size
+        List<PackedBoard> solvable4x4 = new ArrayList<>();
+        List<PackedBoard> solvable9x9 = new ArrayList<>();
+        List<PackedBoard> solvable16x16 = new ArrayList<>();
 
         // Add 4x4 solvable Boards
-        solvable4x4.add(new Board(BoardSize.B4x4, new int[]{1, 2, 0, 4, 0, 0, 1, 0, 2, 0, 0, 0, 4, 3, 0, 0}));
-        solvable4x4.add(new Board(BoardSize.B4x4, new int[]{0, 3, 1, 4, 0, 1, 0, 0, 3, 0, 4, 0, 0, 4, 0, 2}));
-        solvable4x4.add(new Board(BoardSize.B4x4, new int[]{0, 2, 3, 0, 3, 4, 0, 2, 0, 0, 0, 1, 2, 0, 0, 3}));
+        solvable4x4.add(PackedBoard.of(BoardSize.B4x4, new int[]{1, 2, 0, 4, 0, 0, 1, 0, 2, 0, 0, 0, 4, 3, 0, 0}));
+        solvable4x4.add(PackedBoard.of(BoardSize.B4x4, new int[]{0, 3, 1, 4, 0, 1, 0, 0, 3, 0, 4, 0, 0, 4, 0, 2}));
+        solvable4x4.add(PackedBoard.of(BoardSize.B4x4, new int[]{0, 2, 3, 0, 3, 4, 0, 2, 0, 0, 0, 1, 2, 0, 0, 3}));
+
+        // Add 9x9 and 16x16 solvable Boards
+        solvable9x9.add(PackedBoard.of(BoardSize.B9x9, BOARD_9x9));
+        solvable16x16.add(PackedBoard.of(BoardSize.B16x16, BOARD_16x16));
+
+        solvableBoards.put(BoardSize.B4x4, List.copyOf(solvable4x4));
+        solvableBoards.put(BoardSize.B9x9, List.copyOf(solvable9x9));
+        solvableBoards.put(BoardSize.B16x16, List.copyOf(solvable16x16));
+    }
+
+    // Seed puzzles sorted by difficulty (graded once, when the service starts)
+    private final Map<BoardSize, Map<Difficulty, List<PackedBoard>>> seedsByDifficulty = new EnumMap<>(BoardSize.class);
 
-        solvableBoards.put(BoardSize.B4x4, solvable4x4);
-        solvableBoards.put(BoardSize.B9x9, new HashSet<>());
-        solvableBoards.put(BoardSize.B16x16, new HashSet<>());
+    // Solved boards by canonical form (or as given, for imports that skip it). Concurrent
+    // sets, so request threads add and read without locking each other out
+    private final Map<BoardSize, Set<PackedBoard>> completeBoards = new EnumMap<>(BoardSize.class); {
+        completeBoards.put(BoardSize.B4x4, ConcurrentHashMap.newKeySet());
+        completeBoards.put(BoardSize.B9x9, ConcurrentHashMap.newKeySet());
+        completeBoards.put(BoardSize.B16x16, ConcurrentHashMap.newKeySet());
     }
 
-    private HashMap<BoardSize, HashSet<Board>> completeBoards = new HashMap<>(); {
-        completeBoards.put(BoardSize.B4x4, new HashSet<>());
-        completeBoards.put(BoardSize.B9x9, new HashSet<>());
-        completeBoards.put(BoardSize.B16x16, new HashSet<>());
+    // Metrics, per board size
+    private final Map<BoardSize, Timer> verifyTimers = new EnumMap<>(BoardSize.class);
+    private final Map<BoardSize, Counter> solvedVerified = new EnumMap<>(BoardSize.class);
+    private final Map<BoardSize, Counter> unsolvedVerified = new EnumMap<>(BoardSize.class);
+    private final Map<BoardSize, Timer> conflictTimers = new EnumMap<>(BoardSize.class);
+    private final Map<BoardSize, Counter> conflictsFound = new EnumMap<>(BoardSize.class);
+
+    /**
+     * Constructor for the sudoku service.
+     * @param generator generator for new puzzles
+     * @param puzzlePool pool of pre-generated puzzles
+     * @param puzzleLibrary file-backed library of puzzles, drawn from when the pool is empty
+     * @param verificationPool pool that verifies batches of boards in parallel
+     * @param mutationLog log that added solved boards are written to
+     * @param registry registry to publish metrics to
+     */
+    public SudokuService(PuzzleGenerator generator, PuzzlePool puzzlePool, PuzzleLibrary puzzleLibrary,
+                         ForkJoinPool verificationPool, MutationLog mutationLog, MeterRegistry registry) {
+        this.generator = generator;
+        this.puzzlePool = puzzlePool;
+        this.puzzleLibrary = puzzleLibrary;
+        this.verificationPool = verificationPool;
+        this.mutationLog = mutationLog;
+
+        // Grade each seed puzzle into its difficulty bucket
+        for (BoardSize size : BoardSize.values()) {
+            Map<Difficulty, List<PackedBoard>> buckets = new EnumMap<>(Difficulty.class);
+            for (Difficulty difficulty : Difficulty.values()) {
+                buckets.put(difficulty, new ArrayList<>());
+            }
+            for (PackedBoard seed : solvableBoards.get(size)) {
+                Difficulty difficulty = DifficultyGrader.grade(size, seed.toArray()).getDifficulty();
+                buckets.get(difficulty).add(seed);
+            }
+            buckets.replaceAll((difficulty, seeds) -> List.copyOf(seeds));
+            seedsByDifficulty.put(size, buckets);
+        }
+
+        for (BoardSize size : BoardSize.values()) {
+            Gauge.builder("sudoku.boards.seeds", solvableBoards.get(size), List::size)
+                    .description("Seed puzzles served when the pool is empty")
+                    .tags("size", size.getName())
+                    .register(registry);
+            Gauge.builder("sudoku.boards.solved", completeBoards.get(size), Set::size)
+                    .description("Essentially different solved boards stored")
+                    .tags("size", size.getName())
+                    .register(registry);
+            verifyTimers.put(size, Timer.builder("sudoku.verify")
+                    .description("Checks that a board is solved")
+                    .tags("size", size.getName())
+                    .register(registry));
+            solvedVerified.put(size, Counter.builder("sudoku.boards.verified")
+                    .description("Boards verified")
+                    .tags("size", size.getName(), "result", "solved")
+                    .register(registry));
+            unsolvedVerified.put(size, Counter.builder("sudoku.boards.verified")
+                    .description("Boards verified")
+                    .tags("size", size.getName(), "result", "unsolved")
+                    .register(registry));
+            conflictTimers.put(size, Timer.builder("sudoku.conflicts.find")
+                    .description("Searches of a board for conflicting cells")
+                    .tags("size", size.getName())
+                    .register(registry));
+            conflictsFound.put(size, Counter.builder("sudoku.conflicts.found")
+                    .description("Conflicting cells found")
+                    .tags("size", size.getName())
+                    .register(registry));
+        }
     }
 
     ////   GET REQUESTS   ////
 
     /**
      * @param size Board size (4x4, 9x9, 16x16, etc.)
-     * @return Incomplete sudoku board of
+     * @return Incomplete sudoku board of the given size with a unique solution
      */
     public int[] getSolvableBoard(BoardSize size) {
-        int randomIndex = (int) (Math.random() * solvableBoards.get(size).size());
-        switch (size) {
-            case B4x4 -> {
-                return ((Board)(solvableBoards.get(size).toArray()[randomIndex])).getGameData();
-            }
-            case B9x9 -> {
-                return BOARD_9x9;
-            }
-            case B16x16 -> {
-                return BOARD_16x16;
+        return getSolvableBoard(size, null);
+    }
+
+    /**
+     * Method to get a puzzle of the given difficulty. Puzzles are graded before they
+     * reach the pool, so this never grades or generates on the request thread.
+     * @param size Board size (4x4, 9x9, 16x16, etc.)
+     * @param difficulty difficulty of puzzle wanted, or null for any difficulty
+     * @return Incomplete sudoku board of the given size with a unique solution.
+     * If no puzzle of the difficulty is ready, a puzzle of the closest difficulty available
+     */
+    public int[] getSolvableBoard(BoardSize size, Difficulty difficulty) {
+        return getPuzzle(size, difficulty).getCells();
+    }
+
+    /**
+     * Method to get a puzzle of the given difficulty, with the difficulty it was
+     * served as. Pool and library puzzles always match the request; if neither
+     * has one, the seed puzzles of the closest difficulty are used, so the
+     * served difficulty can differ (every 4x4 puzzle grades easy, for example).
+     * @param size Board size (4x4, 9x9, 16x16, etc.)
+     * @param difficulty difficulty of puzzle wanted, or null for any difficulty
+     * @return the puzzle and its difficulty (null if no difficulty was requested)
+     */
+    public ServedPuzzle getPuzzle(BoardSize size, Difficulty difficulty) {
+        // Take a pre-generated puzzle (never waits on generation)
+        int[] puzzle = difficulty == null ? puzzlePool.draw(size) : puzzlePool.draw(size, difficulty);
+        if (puzzle != null) {
+            return new ServedPuzzle(puzzle, difficulty);
+        }
+
+        // Pool is empty, draw from the library
+        puzzle = puzzleLibrary.draw(size, difficulty);
+        if (puzzle != null) {
+            return new ServedPuzzle(puzzle, difficulty);
+        }
+
+        // Library has none either, fall back to a seed puzzle
+        Difficulty served = difficulty == null ? null : closestSeedDifficulty(size, difficulty);
+        List<PackedBoard> seeds = served == null ? solvableBoards.get(size) : seedsByDifficulty.get(size).get(served);
+        int randomIndex = ThreadLocalRandom.current().nextInt(seeds.size());
+        return new ServedPuzzle(seeds.get(randomIndex).toArray(), served);
+    }
+
+    /**
+     * Method to read the board a puzzle ID encodes. IDs are derived from the
+     * puzzle's cells (see PackedBoard.toId), so any server can answer without a
+     * lookup. Since any board can be written as an ID, check the board with
+     * {@link #hasUniqueSolution(BoardSize, int[])} before serving it as a puzzle.
+     * @param size Board size (4x4, 9x9, 16x16, etc.)
+     * @param id ID of the puzzle
+     * @return the board, or null if the ID is not a board of the size without conflicts
+     */
+    public int[] decodeBoardId(BoardSize size, String id) {
+        int[] board;
+        try {
+            board = PackedBoard.fromId(size, id).toArray();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ConflictDetector.hasConflicts(size, board) ? null : board;
+    }
+
+    /**
+     * Method to check that a board has exactly one solution, within a short time
+     * limit. At most half the cores run checks at once; a check that cannot start
+     * at once, or does not finish in time, gives no answer rather than a wrong one.
+     * @param size Board size (4x4, 9x9, 16x16, etc.)
+     * @param board the board to check
+     * @return true if the board has one solution, false if it has none or several,
+     * null if the check could not be made
+     */
+    public Boolean hasUniqueSolution(BoardSize size, int[] board) {
+        if (!idChecks.tryAcquire()) {
+            return null;
+        }
+        SudokuSolver solver = SudokuSolver.acquire(size);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ID_CHECK_TIMEOUT_MS);
+            int solutions = solver.search(board, null, 2, deadline);
+            return solver.isTimedOut() ? null : solutions == 1;
+        } finally {
+            solver.release();
+            idChecks.release();
+        }
+    }
+
+    /**
+     * @param size Board size (4x4, 9x9, 16x16, etc.)
+     * @param board the puzzle
+     * @return ID of the puzzle, derived from its cells
+     */
+    public String getBoardId(BoardSize size, int[] board) {
+        return PackedBoard.of(size, board).toId();
+    }
+
+    // Method to find the seed difficulty nearest the given one (preferring easier)
+    private Difficulty closestSeedDifficulty(BoardSize size, Difficulty difficulty) {
+        Map<Difficulty, List<PackedBoard>> buckets = seedsByDifficulty.get(size);
+        Difficulty[] difficulties = Difficulty.values();
+        for (int distance = 0; distance < difficulties.length; distance++) {
+            int easier = difficulty.ordinal() - distance;
+            int harder = difficulty.ordinal() + distance;
+            if (easier >= 0 && !buckets.get(difficulties[easier]).isEmpty()) {
+                return difficulties[easier];
             }
-            default -> {
-                return new int[0];
+            if (harder < difficulties.length && !buckets.get(difficulties[harder]).isEmpty()) {
+                return difficulties[harder];
             }
         }
+        // Every size has at least one seed, so some bucket is not empty
+        throw new IllegalStateException("No seed puzzles for " + size);
     }
 
     /**
@@ -109,17 +333,163 @@ public class SudokuService {
      * @return solvable sudoku board as an array of integers
      */
     public int[] generateBoard(BoardSize size) {
-        return Board.generateInitialBoard(size);
+        return generator.generate(size);
     }
 
     /**
      * Method to add a new solved sudoku board to the list of solved boards.
+     * Boards are stored by their canonical form, so a board that is a relabeled,
+     * transposed, or reordered copy of a stored board is not added again.
      * @param size BoardSize enum containing the dimensions of the board
      * @param newBoard solved sudoku board of given size in array form
-     * @return true if the board was successfully added, false otherwise
+     * @return true if the board was successfully added, false if it is not
+     * solved or an equivalent board is already stored
+     * @throws java.io.UncheckedIOException if the mutation log could not save the
+     * board (it is not stored either)
      */
     public boolean addCompleteBoard(BoardSize size, int[] newBoard) {
-        return completeBoards.get(size).add(new Board(size, newBoard));
+        PackedBoard canonical = solvedBoardKey(size, newBoard, true);
+        if (canonical == null || !storeCompleteBoard(canonical)) {
+            return false;
+        }
+        awaitDurable(List.of(canonical));
+        return true;
+    }
+
+    // Method to add a canonical board to the store, logging it if it is new
+    // (the caller waits for the log to sync it once its locks are released)
+    private boolean storeCompleteBoard(PackedBoard canonical) {
+        Lock lock = mutationLog.mutationLock();
+        lock.lock();
+        try {
+            Set<PackedBoard> boards = completeBoards.get(canonical.getSize());
+            if (!boards.add(canonical)) {
+                return false;
+            }
+            try {
+                mutationLog.boardAdded(canonical);
+            } catch (RuntimeException e) {
+                // Not saved, so not stored either
+                boards.remove(canonical);
+                throw e;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Method to wait for the log to sync the given boards, removing them from the store
+    // if it cannot (so a board is only kept once it is saved)
+    private void awaitDurable(List<PackedBoard> added) {
+        try {
+            mutationLog.awaitDurable();
+        } catch (UncheckedIOException e) {
+            for (PackedBoard board : added) {
+                completeBoards.get(board.getSize()).remove(board);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Method to add solved boards read from a stream of newline-delimited boards
+     * (one JSON array per line). The stream is read a chunk at a time and each
+     * chunk is checked and canonicalized in parallel, so memory stays bounded.
+     * Each chunk is saved to the mutation log before the next is read; if the log
+     * cannot save a chunk, its boards are removed again and the exception is passed
+     * on (earlier chunks stay).
+     * <p>
+     * Finding a board's canonical form is most of the cost of an import (hundreds
+     * of microseconds for a 9x9 board). Without it, boards are stored as given
+     * and only exact copies count as duplicates, so a relabeled or reordered copy
+     * of a stored board is added again.
+     * @param size size of every board on the stream, or null to tell each
+     * board's size from its number of cells
+     * @param in stream of newline-delimited boards
+     * @param canonical true to store each board by its canonical form, false to
+     * store it as given
+     * @return counts of accepted, duplicate, and invalid boards
+     * @throws IOException if the stream cannot be read
+     */
+    public ImportResult importCompleteBoards(BoardSize size, InputStream in, boolean canonical) throws IOException {
+        int maxCells = size != null ? size.getCellCount() : BoardSize.B16x16.getCellCount();
+        BoardStreamReader reader = new BoardStreamReader(in, maxCells);
+        List<int[]> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        PackedBoard[] keys = new PackedBoard[IMPORT_CHUNK_SIZE];
+        List<PackedBoard> added = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        long accepted = 0;
+        long invalid = 0;
+        long total = 0;
+
+        int[] board = reader.next();
+        while (board != null) {
+            chunk.add(board);
+            board = reader.next();
+            if (chunk.size() < IMPORT_CHUNK_SIZE && board != null) {
+                continue;
+            }
+
+            // Check and key the chunk in parallel (each task fills its own slot)
+            verificationPool.submit(() -> IntStream.range(0, chunk.size()).parallel()
+                    .forEach(i -> {
+                        int[] next = chunk.get(i);
+                        BoardSize nextSize = size != null ? size : BoardSize.fromCellCount(next.length);
+                        keys[i] = nextSize == null ? null : solvedBoardKey(nextSize, next, canonical);
+                    }))
+                    .join();
+
+            // Insert in order
+            for (int i = 0; i < chunk.size(); i++) {
+                if (keys[i] == null) {
+                    invalid++;
+                }
+                else if (storeCompleteBoard(keys[i])) {
+                    added.add(keys[i]);
+                }
+            }
+            // Every board in the chunk is synced once the last one is
+            awaitDurable(added);
+            accepted += added.size();
+            total += chunk.size();
+            added.clear();
+            chunk.clear();
+        }
+        return new ImportResult(accepted, total - accepted - invalid, invalid);
+    }
+
+    // Method to pack a solved board (in canonical form, or as given), null if it is not solved
+    private PackedBoard solvedBoardKey(BoardSize size, int[] board, boolean canonical) {
+        if (!validateBoard(size, board) || !verifyBoard(size, board)) {
+            return null;
+        }
+        return PackedBoard.of(size, canonical ? CanonicalForm.canonicalize(size, board) : board);
+    }
+
+    /**
+     * Method to restore a solved board read back from the mutation log. Not logged.
+     * @param canonical solved board in canonical form
+     */
+    public void restoreCompleteBoard(PackedBoard canonical) {
+        completeBoards.get(canonical.getSize()).add(canonical);
+    }
+
+    /**
+     * Method to write every stored solved board to a snapshot.
+     * @param sink receives each board
+     */
+    public void exportCompleteBoards(Mutations sink) {
+        for (Set<PackedBoard> boards : completeBoards.values()) {
+            boards.forEach(sink::boardAdded);
+        }
+    }
+
+    /**
+     * @param size BoardSize enum containing the dimensions of the board
+     * @return number of essentially different solved boards stored for the size
+     */
+    public int getCompleteBoardCount(BoardSize size) {
+        return completeBoards.get(size).size();
     }
 
     /**
@@ -129,8 +499,82 @@ public class SudokuService {
      * @return true if the board is complete and correct, false otherwise
      */
     public boolean verifyBoard(BoardSize size, int[] board) {
-        Board testBoard = new Board(size, board);
-        return testBoard.checkForWin();
+        long start = System.nanoTime();
+        boolean solved = isSolved(size, board);
+        verifyTimers.get(size).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (solved ? solvedVerified : unsolvedVerified).get(size).increment();
+        return solved;
+    }
+
+    // Method to check that every cell is filled with no conflicts
+    private boolean isSolved(BoardSize size, int[] board) {
+        // Same checks as Board.checkForWin, without building a Board
+        if (board.length != size.getCellCount()) {
+            return false;
+        }
+        for (int value : board) {
+            if (value < 1 || value > size.getDimensions()) {
+                return false;
+            }
+        }
+        return !ConflictDetector.hasConflicts(size, board);
+    }
+
+    /**
+     * Method to verify one board, with the same checks as the solved endpoint.
+     * @param size enum representing the dimensions of the board
+     * @param board array of integers representing a sudoku board (may be null)
+     * @return status of the board and its conflicting cells
+     */
+    public BoardVerification checkBoard(BoardSize size, int[] board) {
+        if (board == null || !validateBoard(size, board)) {
+            return new BoardVerification(BoardStatus.INVALID, null);
+        }
+        if (verifyBoard(size, board)) {
+            return new BoardVerification(BoardStatus.SOLVED, Set.of());
+        }
+        return new BoardVerification(BoardStatus.UNSOLVED, getConflictingCells(size, board));
+    }
+
+    /**
+     * Method to verify many boards of one size, split across the verification pool.
+     * Boards are only checked, never added to the collection.
+     * @param size enum representing the dimensions of the boards
+     * @param boards boards to verify
+     * @return result for each board, in the same order as the boards
+     */
+    public List<BoardVerification> checkBoards(BoardSize size, List<int[]> boards) {
+        BoardVerification[] results = new BoardVerification[boards.size()];
+        // Each task writes only its own slot, so results stay in input order
+        verificationPool.submit(() -> IntStream.range(0, results.length).parallel()
+                .forEach(i -> results[i] = checkBoard(size, boards.get(i))))
+                .join();
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Method to solve a sudoku board. Gives up if no solution is found within
+     * the solve timeout.
+     * @param size enum representing the dimensions of the board
+     * @param board array of integers representing a sudoku board (0 = empty)
+     * @return the solved board, or null if the board has no solution
+     * @throws TimeoutException if the search ran out of time before it could tell
+     */
+    public int[] solveBoard(BoardSize size, int[] board) throws TimeoutException {
+        SudokuSolver solver = SudokuSolver.acquire(size);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SOLVE_TIMEOUT_MS);
+            int[] solution = new int[size.getCellCount()];
+            if (solver.search(board, solution, 1, deadline) == 1) {
+                return solution;
+            }
+            if (solver.isTimedOut()) {
+                throw new TimeoutException("No answer within " + SOLVE_TIMEOUT_MS + " ms");
+            }
+            return null;
+        } finally {
+            solver.release();
+        }
     }
 
     /**
@@ -141,9 +585,11 @@ public class SudokuService {
      * @return Set of cell locations that contain conflicts
      */
     public Set<Integer> getConflictingCells(BoardSize size, int[] board) {
-        Board testBoard = new Board(size, board);
-        testBoard.evaluateForConflicts();
-        return testBoard.getConflictingCells();
+        long start = System.nanoTime();
+        Set<Integer> conflicts = ConflictDetector.findConflictingCells(size, board);
+        conflictTimers.get(size).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        conflictsFound.get(size).increment(conflicts.size());
+        return conflicts;
     }
 
     /**
@@ -0,0 +1,44 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * Issues session tokens: 32 random bytes written as 64 hex characters. Each
+ * thread has its own random generator, so threads issuing tokens at once never
+ * wait on a shared one.
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+@Component
+public class TokenIssuer {
+    private static final int TOKEN_BYTES = 32;
+    private static final HexFormat HEX = HexFormat.of();
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(TokenIssuer::newRandom);
+
+    /**
+     * @return a new unguessable token
+     */
+    public String issue() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.get().nextBytes(bytes);
+        return HEX.formatHex(bytes);
+    }
+
+    // Method to create a generator with its own state (the default may share one lock across threads)
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TokenIssuer";
+    }
+}
@@ -1,15 +1,73 @@
 package edu.greenriver.sdev.sassproject.services;
 
+import edu.greenriver.sdev.sassproject.models.Leaderboard;
+import edu.greenriver.sdev.sassproject.models.LeaderboardEntry;
+import edu.greenriver.sdev.sassproject.models.TimingWheel;
 import edu.greenriver.sdev.sassproject.models.User;
 import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Locale;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * This service provides user objects and allows a client to
- * add users, get users, update users, and remove users
+ * add users, get users, update users, and remove users.
+ * Each user and their password hash are kept together in one record of a concurrent
+ * map. Every change to a user (login, update, delete) is made while holding that
+ * user's lock, so requests for different users almost never wait on each other.
+ * The locks are ReentrantLocks striped by username, not the map's own bin locks:
+ * ranking and logging a change happen while the lock is held, and a virtual
+ * thread waiting on a ReentrantLock releases its carrier thread, where one
+ * blocked inside ConcurrentHashMap.compute would pin it. The map itself is only
+ * read and written.
+ * <p>
+ * Current tokens are indexed by token, so a request can be authenticated from
+ * its token alone. Each token is scheduled on a timing wheel when it is issued
+ * and dropped from the index when it expires, so the index only holds live tokens.
+ * <p>
+ * Expiry slides: every use of a token pushes its expiry back. Tokens are only
+ * replaced on login or once they reach the rotation age, so clients sending
+ * several requests at once keep a working token.
+ * <p>
+ * Users are ranked by wins (overall and per board size) on leaderboards that are
+ * updated with each change to a user, so rankings never scan every user.
+ * <p>
+ * Passwords are only held and logged as hashes (see {@link PasswordHasher}).
+ * Hashing is slow, so a password is checked before the user's lock is taken,
+ * and only when the request did not send the current token. Permits to hash are
+ * striped by username like the locks, so at most
+ * sudoku.password.max-hashes-per-user passwords are hashed at once for one user
+ * while checks for other users carry on. A check that cannot start within the
+ * wait time throws {@link PasswordCheckRejectedException} (and is counted), so
+ * a flood against one account cannot take every core.
+ * <p>
+ * Account changes (add, update, delete) are written to the mutation log while
+ * the user's lock is held, so the log holds them in the order they were made,
+ * and each change returns once the log has synced it. If the log cannot confirm
+ * the change (it failed, or did not sync in time), the change is undone and the
+ * exception is passed on, so the request fails and can be retried. A change that
+ * reached the disk before the log failed is still replayed after a restart.
+ * Tokens are not logged; users log in again after a restart.
+ * <p>
+ * The number of users, logins, token expiries, rejected password checks, and
+ * the time to issue a token are published as metrics.
  * @author Patrick Lindsay
  * @version 1.0
  */
@@ -18,16 +76,102 @@ public class UserService {
 
     private static final int MAX_USERNAME_LENGTH = 20;
     private static final int MIN_USERNAME_LENGTH = 3;
+    private static final int MAX_GAMES_WON = 1_000_000;
     private static final int TOKEN_GENERATION_INTERVAL = 3000000;
+    private static final long TOKEN_SWEEP_MILLIS = 1000;
+    private static final int USER_LOCK_STRIPES = 1024;
 
-    private HashMap<String, User> users = new HashMap<>();
-    {
-        users.put("example", new User("Example"));
-        users.get("example").generateToken(getCurrentTime());
+    // Users and their password hashes, keyed by lowercase username
+    private final Map<String, Account> users = new ConcurrentHashMap<>();
+    // Lowercase usernames in order, for listing users a page at a time
+    private final NavigableSet<String> usernames = new ConcurrentSkipListSet<>();
+    // Held while changing a user (taken before the mutation log's lock)
+    private final Lock[] userLocks = new Lock[USER_LOCK_STRIPES]; {
+        for (int i = 0; i < USER_LOCK_STRIPES; i++) {
+            userLocks[i] = new ReentrantLock();
+        }
     }
-    private HashMap<String, String> userCredentials = new HashMap<>();
-    {
-        userCredentials.put("example", "password");
+    private final TokenIssuer tokenIssuer;
+    private final MutationLog mutationLog;
+    private final long rotateAfterMillis;
+    // Permits for hashing passwords, striped like the user locks
+    private final Semaphore[] hashPermits = new Semaphore[USER_LOCK_STRIPES];
+    private final long hashWaitMillis;
+
+    // Current tokens -> lowercase username, and when each token expires
+    private final Map<String, String> tokenOwners = new ConcurrentHashMap<>();
+    private final TimingWheel<String> tokenExpiry =
+            new TimingWheel<>(TOKEN_SWEEP_MILLIS, TOKEN_GENERATION_INTERVAL, System.currentTimeMillis());
+
+    // Users ranked by total wins, and by wins of each board size
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final Map<BoardSize, Leaderboard> leaderboardsBySize = new EnumMap<>(BoardSize.class); {
+        for (BoardSize size : BoardSize.values()) {
+            leaderboardsBySize.put(size, new Leaderboard());
+        }
+    }
+
+    // Metrics
+    private final Counter successfulLogins;
+    private final Counter failedLogins;
+    private final Counter expiredTokens;
+    private final Counter rejectedHashes;
+    private final Timer tokenTimer;
+
+    /**
+     * Constructor for the user service. Starts removing expired tokens.
+     * @param backgroundExecutor executor that runs the token expiry sweep
+     * @param tokenIssuer issuer of new tokens
+     * @param mutationLog log that account changes are written to
+     * @param registry registry to publish metrics to
+     * @param rotateAfterMillis age at which a token in use is replaced
+     * @param maxHashesPerUser most passwords hashed at once for one user
+     * @param hashWaitMillis longest a password check waits for a permit before it is rejected
+     */
+    public UserService(ScheduledExecutorService backgroundExecutor,
+                       TokenIssuer tokenIssuer,
+                       MutationLog mutationLog,
+                       MeterRegistry registry,
+                       @Value("${sudoku.token.rotate-after-ms:900000}") long rotateAfterMillis,
+                       @Value("${sudoku.password.max-hashes-per-user:1}") int maxHashesPerUser,
+                       @Value("${sudoku.password.hash-wait-ms:1000}") long hashWaitMillis) {
+        this.tokenIssuer = tokenIssuer;
+        this.mutationLog = mutationLog;
+        this.rotateAfterMillis = rotateAfterMillis;
+        for (int i = 0; i < USER_LOCK_STRIPES; i++) {
+            hashPermits[i] = new Semaphore(Math.max(1, maxHashesPerUser));
+        }
+        this.hashWaitMillis = hashWaitMillis;
+
+        Gauge.builder("sudoku.users", users, Map::size)
+                .description("Users stored")
+                .register(registry);
+        successfulLogins = Counter.builder("sudoku.logins")
+                .description("Login attempts")
+                .tags("result", "success")
+                .register(registry);
+        failedLogins = Counter.builder("sudoku.logins")
+                .description("Login attempts")
+                .tags("result", "failure")
+                .register(registry);
+        expiredTokens = Counter.builder("sudoku.tokens.expired")
+                .description("Tokens dropped after going unused for the expiry interval")
+                .register(registry);
+        rejectedHashes = Counter.builder("sudoku.password.rejected")
+                .description("Password checks rejected because too many were running for the user")
+                .register(registry);
+        tokenTimer = Timer.builder("sudoku.token.issue")
+                .description("Generating a new token")
+                .register(registry);
+
+        Account example = new Account(new User("Example"), PasswordHasher.hash("password"));
+        users.put("example", example);
+        usernames.add("example");
+        issueToken("example", example);
+        rank("example", example.user);
+
+        backgroundExecutor.scheduleWithFixedDelay(this::expireTokens,
+                TOKEN_SWEEP_MILLIS, TOKEN_SWEEP_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -35,33 +179,66 @@ public class UserService {
      * @param username the unique name that identifies a user
      * @param password the password used by the user
      * @return User object containing username, rank, games won, preferences, and settings
+     * @throws PasswordCheckRejectedException if the password could not be checked in time
      */
     public User getUserByName(String username, String password) {
-        // Check if user exists
-        if (users.get(username.toLowerCase()) == null) {
-            return null;
-        }
-        User requestedUser = users.get(username.toLowerCase());
+        String name = username.toLowerCase();
+        User requestedUser = null;
+        // Check Credentials (LOGIN ATTEMPT), before locking the user
+        String matchedHash = checkPassword(name, password);
+        Lock lock = userLock(name);
+        lock.lock();
+        try {
+            Account account = users.get(name);
+            if (account != null) {
+                boolean login = matchedHash != null && matchedHash.equals(account.passwordHash);
+                // Check for current token instead of password (GET USER ATTEMPT)
+                boolean validToken = account.user.getToken().equals(password) && !isTokenExpired(account);
 
-        // Check Credentials (LOGIN ATTEMPT)
-        if (userCredentials.get(username.toLowerCase()).equals(password)) {
-            // Regenerate token (
-            requestedUser.generateToken(getCurrentTime());
-            return requestedUser;
-        }
-        // Check for token instead of password (GET USER ATTEMPT)
-        else {
-            if (requestedUser.getToken().equals(password)) {
-                // Check if token is current
-                if (isTokenExpired(requestedUser)) {
-                    // TOKEN IS TOO OLD (LOGOUT/DENY)
-                    return null;
+                if (login) {
+                    // New token
+                    issueToken(name, account);
+                    successfulLogins.increment();
+                    requestedUser = account.user;
+                }
+                else if (validToken) {
+                    // Extend token
+                    useToken(name, account);
+                    requestedUser = account.user;
                 }
-                requestedUser.generateToken(getCurrentTime());
-                return requestedUser;
             }
+        } finally {
+            lock.unlock();
+        }
+        if (requestedUser == null) {
+            failedLogins.increment();
+        }
+        return requestedUser;
+    }
+
+    /**
+     * Method to get the user a token belongs to, without knowing the username.
+     * @param token token issued at login
+     * @return the user, or null if the token is not current
+     */
+    public User getUserByToken(String token) {
+        String username = tokenOwners.get(token);
+        if (username == null) {
             return null;
         }
+        Lock lock = userLock(username);
+        lock.lock();
+        try {
+            Account account = users.get(username);
+            if (account == null || !account.user.getToken().equals(token) || isTokenExpired(account)) {
+                return null;
+            }
+            // Extend token
+            useToken(username, account);
+            return account.user;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -74,33 +251,75 @@ public class UserService {
     }
 
     /**
-     * @return An array of all user objects currently stored
+     * Method to walk one page of users in username order. Users are handed to the
+     * sink as they are found, so a page is never copied into an array.
+     * @param cursor username the previous page ended at, or null for the first page
+     * @param limit most users in the page
+     * @param sink receives each user in the page
+     * @return cursor for the next page, or null if there are no more users
      */
-    public User[] getAllUsers() {
-        return users.values().toArray(new User[0]);
+    public String forEachUserPage(String cursor, int limit, Consumer<User> sink) {
+        NavigableSet<String> remaining = cursor == null ? usernames : usernames.tailSet(cursor.toLowerCase(), false);
+        String last = null;
+        int count = 0;
+        for (String username : remaining) {
+            if (count == limit) {
+                return last;
+            }
+            Account account = users.get(username);
+            if (account != null) {
+                // Not deleted since it was listed
+                sink.accept(account.user);
+                last = username;
+                count++;
+            }
+        }
+        return null;
     }
 
     /**
      * @param newUser a new user object containing user data
      * @return true if the new user object is added, otherwise false
+     * @throws PasswordCheckRejectedException if the password could not be hashed in time
      */
     public Boolean addUser(User newUser) {
+        String username = newUser.getUsername().toLowerCase();
+        Account account;
+        String password = newUser.getToken();
+
         // Prevent overwriting existing users
-        if (users.containsKey(newUser.getUsername().toLowerCase())) {
+        if (password == null || users.containsKey(username)) {
             return false;
         }
-        if (userCredentials.containsKey(newUser.getUsername().toLowerCase())) {
-            return false;
-        }
-
-        // Store Credentials
-        userCredentials.put(newUser.getUsername().toLowerCase(), newUser.getToken());
+        String passwordHash = hashPassword(username, password);
 
-        // Clear token (password) and generate token
-        newUser.generateToken(getCurrentTime());
-
-        // Create user
-        users.put(newUser.getUsername().toLowerCase(), newUser);
+        Lock userLock = userLock(username);
+        Lock logLock = mutationLog.mutationLock();
+        userLock.lock();
+        logLock.lock();
+        try {
+            // Create user (unless another request created it first)
+            if (users.containsKey(username)) {
+                return false;
+            }
+            // Clear token (password) and generate token
+            account = new Account(newUser, passwordHash);
+            issueToken(username, account);
+            try {
+                // Logged before it is stored, so a change the log rejects is never stored
+                mutationLog.userSaved(username, passwordHash, newUser);
+            } catch (RuntimeException e) {
+                tokenOwners.remove(newUser.getToken(), username);
+                throw e;
+            }
+            users.put(username, account);
+            usernames.add(username);
+            rank(username, newUser);
+        } finally {
+            logLock.unlock();
+            userLock.unlock();
+        }
+        awaitDurable(username, account, null);
         return true;
     }
 
@@ -108,23 +327,35 @@ public class UserService {
      * @param testUser User object to validate
      * @param newUserFlag Boolean indicating whether the user is new
      * @return true if the user object is valid, false otherwise
+     * @throws PasswordCheckRejectedException if the password could not be checked in time
      */
     public Boolean validateUser(User testUser, boolean newUserFlag) {
         String username = testUser.getUsername().toLowerCase();
+        Account stored = users.get(username);
+
+        if (newUserFlag) {
+            return stored == null && validateUser(testUser, null, false);
+        }
+        // The password is only needed (and hashed) when the user is not logged in
+        return stored != null && validateUser(testUser, stored, testUser.getLastGen() != stored.user.getLastGen()
+                && stored.passwordHash.equals(checkPassword(username, testUser.getToken())));
+    }
+
+    // Method to validate a user against its stored record (null for a new user),
+    // passwordGiven is true if the user's token field held their password
+    private boolean validateUser(User testUser, Account stored, boolean passwordGiven) {
+        String username = testUser.getUsername().toLowerCase();
 
         // Validate username
         if (username.length() <= MIN_USERNAME_LENGTH || username.length() > MAX_USERNAME_LENGTH) {
             return false;
         }
-        if (newUserFlag && users.containsKey(username)) {
-            return false;
-        }
 
         // Validate Timestamp (if not new user)
-        if (!newUserFlag) {
-            if (testUser.getLastGen() != users.get(username).getLastGen()) {
+        if (stored != null) {
+            if (testUser.getLastGen() != stored.user.getLastGen()) {
                 // Check if password was passed (user not logged in)
-                if (!testUser.getToken().equals(userCredentials.get(username))) {
+                if (!passwordGiven) {
                     return false;
                 }
             }
@@ -143,13 +374,13 @@ public class UserService {
         // Validate games won
         int total = testUser.getTotalGamesWon();
         int testTotal = 0;
-        if (total < 0) {
+        if (total < 0 || total > MAX_GAMES_WON) {
             return false;
         }
         try {
             for (BoardSize size : BoardSize.values()) {
                 int count = testUser.getGamesWonBySize(size);
-                if (count < 0) {
+                if (count < 0 || count > MAX_GAMES_WON) {
                     return false;
                 }
                 testTotal += count;
@@ -161,61 +392,233 @@ public class UserService {
         return testTotal == total;
     }
 
-    private boolean isTokenExpired(User user) {
-        long lastGen = user.getLastGen();
-        long timeSinceLastGen = System.currentTimeMillis() - lastGen;
-        // Check if token within generation interval
-        return timeSinceLastGen > TOKEN_GENERATION_INTERVAL;
+    private boolean isTokenExpired(Account account) {
+        long timeSinceLastUse = System.currentTimeMillis() - account.lastUsed;
+        // Check if token used within generation interval
+        return timeSinceLastUse > TOKEN_GENERATION_INTERVAL;
     }
 
     /**
      * Method to update an existing user
      * @param updatedUser user object containing updated data
      * @return the updated user if successful, null otherwise
+     * @throws PasswordCheckRejectedException if the password could not be checked in time
      */
     public User updateUser(User updatedUser) {
-        if (!validateUserModification(updatedUser)) {
-            return null;
+        String name = updatedUser.getUsername().toLowerCase();
+        String matchedHash = checkPassword(name, updatedUser.getToken());
+        Account account;
+        Account updated;
+        Lock userLock = userLock(name);
+        Lock logLock = mutationLog.mutationLock();
+        userLock.lock();
+        logLock.lock();
+        try {
+            account = users.get(name);
+            if (account == null || !validateUserModification(updatedUser, account, matchedHash)) {
+                return null;
+            }
+            // Keep the current token (extended) and replace user data. The token is
+            // replaced before logging, so a password sent in its place is never logged
+            updatedUser.assignToken(account.user.getToken(), account.user.getLastGen());
+            // Logged first, so a change the log rejects leaves the stored user unchanged
+            mutationLog.userSaved(name, account.passwordHash, updatedUser);
+            updated = new Account(updatedUser, account.passwordHash);
+            useToken(name, updated);
+            users.put(name, updated);
+            rank(name, updatedUser);
+        } finally {
+            logLock.unlock();
+            userLock.unlock();
         }
-
-        // Regenerate token
-        updatedUser.generateToken(getCurrentTime());
-        // Update user data
-        users.put(updatedUser.getUsername().toLowerCase(), updatedUser);
-        return users.get(updatedUser.getUsername().toLowerCase());
+        awaitDurable(name, updated, account);
+        return updatedUser;
     }
 
     /**
      * @param user User object to be deleted
      * @return true if user was found and removed, false otherwise
+     * @throws PasswordCheckRejectedException if the password could not be checked in time
      */
     public User deleteUser(User user) {
-        if (validateUserModification(user)) {
+        String name = user.getUsername().toLowerCase();
+        String matchedHash = checkPassword(name, user.getToken());
+        Account account;
+        Lock userLock = userLock(name);
+        Lock logLock = mutationLog.mutationLock();
+        userLock.lock();
+        logLock.lock();
+        try {
+            account = users.get(name);
             // Only delete if the passed user matches the user stored
-            if (user.equals(users.get(user.getUsername().toLowerCase()))) {
-                userCredentials.remove(user.getUsername().toLowerCase());
-                return users.remove(user.getUsername().toLowerCase());
+            if (account == null || !validateUserModification(user, account, matchedHash)
+                    || !user.equals(account.user)) {
+                return null;
             }
+            // Logged first, so a change the log rejects leaves the user in place
+            mutationLog.userDeleted(name);
+            users.remove(name);
+            tokenOwners.remove(account.user.getToken(), name);
+            unrank(name);
+            usernames.remove(name);
+        } finally {
+            logLock.unlock();
+            userLock.unlock();
         }
-        return null;
+        awaitDurable(name, null, account);
+        return account.user;
+    }
+
+    ////   LEADERBOARDS   ////
+
+    /**
+     * Method to list the users with the most wins.
+     * @param size board size to rank by, or null to rank by total wins
+     * @param limit most users to list
+     * @return up to limit users, most wins first
+     */
+    public List<LeaderboardEntry> getLeaderboard(BoardSize size, int limit) {
+        return leaderboardFor(size).top(limit);
+    }
+
+    /**
+     * Method to find a user's place on a leaderboard.
+     * @param username the unique name that identifies a user
+     * @param size board size to rank by, or null to rank by total wins
+     * @return the user's place, or null if the user does not exist
+     */
+    public LeaderboardEntry getLeaderboardEntry(String username, BoardSize size) {
+        return leaderboardFor(size).find(username.toLowerCase());
     }
 
-    private boolean validateUserModification(User user) {
-        String username = user.getUsername().toLowerCase();
+    private Leaderboard leaderboardFor(BoardSize size) {
+        return size == null ? leaderboard : leaderboardsBySize.get(size);
+    }
+
+    // Method to put a user's wins on every leaderboard (called while the user's lock is held)
+    private void rank(String username, User user) {
+        leaderboard.set(username, user.getUsername(), user.getTotalGamesWon());
+        for (BoardSize size : BoardSize.values()) {
+            leaderboardsBySize.get(size).set(username, user.getUsername(), user.getGamesWonBySize(size));
+        }
+    }
+
+    // Method to take a user off every leaderboard
+    private void unrank(String username) {
+        leaderboard.remove(username);
+        for (Leaderboard bySize : leaderboardsBySize.values()) {
+            bySize.remove(username);
+        }
+    }
+
+    ////   PERSISTENCE   ////
+
+    /**
+     * Method to restore a user read back from the mutation log. The user gets a
+     * new token, so they must log in again. Not logged.
+     * @param username lowercase username
+     * @param passwordHash the user's password hash
+     * @param user the stored user
+     */
+    public void restoreUser(String username, String passwordHash, User user) {
+        Lock lock = userLock(username);
+        lock.lock();
         try {
-            // Check that user exists
-            if (!users.containsKey(username)) {
-                return false;
+            Account account = new Account(user, passwordHash);
+            issueToken(username, account);
+            Account old = users.put(username, account);
+            if (old != null) {
+                tokenOwners.remove(old.user.getToken(), username);
             }
+            usernames.add(username);
+            rank(username, user);
+        } finally {
+            lock.unlock();
+        }
+    }
 
+    /**
+     * Method to remove a user deleted in the mutation log. Not logged.
+     * @param username lowercase username
+     */
+    public void restoreDeletedUser(String username) {
+        Lock lock = userLock(username);
+        lock.lock();
+        try {
+            Account old = users.remove(username);
+            if (old != null) {
+                tokenOwners.remove(old.user.getToken(), username);
+                unrank(username);
+                usernames.remove(username);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to write every stored user to a snapshot.
+     * @param sink receives each user
+     */
+    public void exportUsers(Mutations sink) {
+        users.forEach((name, account) -> sink.userSaved(name, account.passwordHash, account.user));
+    }
+
+    // Method to check a password before taking the user's lock, returning the hash it
+    // matched (null if the user does not exist, the current token was sent, or it does not match)
+    private String checkPassword(String username, String password) {
+        Account account = users.get(username);
+        if (account == null || password == null || password.equals(account.user.getToken())) {
+            return null;
+        }
+        Semaphore permits = acquireHashPermit(username);
+        try {
+            return PasswordHasher.matches(password, account.passwordHash) ? account.passwordHash : null;
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Method to hash a new user's password
+    private String hashPassword(String username, String password) {
+        Semaphore permits = acquireHashPermit(username);
+        try {
+            return PasswordHasher.hash(password);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Method to wait (briefly) for a permit to hash a password for a user, rejecting the
+    // check if none comes free. Each hash takes tens of milliseconds of CPU, so this
+    // bounds the cores a flood against one account can use
+    private Semaphore acquireHashPermit(String username) {
+        int hash = username.hashCode();
+        Semaphore permits = hashPermits[(hash ^ (hash >>> 16)) & (USER_LOCK_STRIPES - 1)];
+        try {
+            if (permits.tryAcquire(hashWaitMillis, TimeUnit.MILLISECONDS)) {
+                return permits;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejectedHashes.increment();
+        throw new PasswordCheckRejectedException(username);
+    }
+
+    // Method to check a change to a user against its stored record, given the
+    // hash the sent password matched (from checkPassword)
+    private boolean validateUserModification(User user, Account stored, String matchedHash) {
+        boolean passwordGiven = matchedHash != null && matchedHash.equals(stored.passwordHash);
+        try {
             // Check if password was passed (if not, validate Token instead)
-            if (!userCredentials.get(username).equals(user.getToken())) {
+            if (!passwordGiven) {
                 // Check that token is not expired
-                if (isTokenExpired(users.get(username))) {
+                if (isTokenExpired(stored)) {
                     return false;
                 }
                 // Check that token matches current token
-                if (!user.getToken().equals(users.get(username).getToken())) {
+                if (!user.getToken().equals(stored.user.getToken())) {
                     return false;
                 }
             }
@@ -223,16 +626,121 @@ public class UserService {
             return false;
         }
         // Validate updated user
-        return validateUser(user, false);
+        return validateUser(user, stored, passwordGiven);
+    }
+
+    // Method to give a user a new token, replacing their old one in the index
+    private void issueToken(String username, Account account) {
+        String oldToken = account.user.getToken();
+        if (oldToken != null) {
+            tokenOwners.remove(oldToken, username);
+        }
+        long start = System.nanoTime();
+        String token = tokenIssuer.issue();
+        tokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        long now = System.currentTimeMillis();
+        account.user.assignToken(token, now);
+        account.lastUsed = now;
+        tokenOwners.put(account.user.getToken(), username);
+        tokenExpiry.schedule(account.user.getToken(), now + TOKEN_GENERATION_INTERVAL);
+    }
+
+    // Method to extend a user's token, replacing it once it reaches the rotation age
+    private void useToken(String username, Account account) {
+        long now = System.currentTimeMillis();
+        if (now - account.user.getLastGen() > rotateAfterMillis) {
+            issueToken(username, account);
+        }
+        else {
+            // The expiry sweep re-schedules the token when its old expiry passes
+            account.lastUsed = now;
+        }
+    }
+
+    // Method to drop tokens that have reached their expiry time from the index
+    private void expireTokens() {
+        tokenExpiry.advance(System.currentTimeMillis(), token -> {
+            String username = tokenOwners.get(token);
+            if (username == null) {
+                // Already replaced
+                return;
+            }
+            Lock lock = userLock(username);
+            lock.lock();
+            try {
+                Account account = users.get(username);
+                if (account == null || !token.equals(account.user.getToken())) {
+                    // User deleted or token replaced
+                    tokenOwners.remove(token, username);
+                }
+                else if (isTokenExpired(account)) {
+                    tokenOwners.remove(token, username);
+                    expiredTokens.increment();
+                }
+                else {
+                    // Token was extended, check again at its new expiry
+                    tokenExpiry.schedule(token, account.lastUsed + TOKEN_GENERATION_INTERVAL);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    // Method to wait for the log to sync a change to a user. If it cannot, the change is
+    // undone (the account it replaced is put back, or the user removed if there was none)
+    // unless the user has changed again since, and the exception is passed on
+    private void awaitDurable(String username, Account applied, Account previous) {
+        try {
+            mutationLog.awaitDurable();
+        } catch (UncheckedIOException e) {
+            Lock lock = userLock(username);
+            lock.lock();
+            try {
+                if (users.get(username) == applied) {
+                    if (applied != null) {
+                        tokenOwners.remove(applied.user.getToken(), username);
+                    }
+                    if (previous == null) {
+                        users.remove(username);
+                        usernames.remove(username);
+                        unrank(username);
+                    }
+                    else {
+                        users.put(username, previous);
+                        usernames.add(username);
+                        rank(username, previous.user);
+                        tokenOwners.put(previous.user.getToken(), username);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
     }
 
-    // Method to determine the current hour
-    private int getCurrentTime() {
-        return (int)(System.currentTimeMillis());
+    // Method to get the lock held while changing the given user (lowercase username)
+    private Lock userLock(String username) {
+        int hash = username.hashCode();
+        return userLocks[(hash ^ (hash >>> 16)) & (USER_LOCK_STRIPES - 1)];
     }
 
     @Override
     public String toString() {
         return "UserService";
     }
+
+    // A user and their password hash, replaced as a whole when the user is updated
+    private static final class Account {
+        private final User user;
+        private final String passwordHash;
+        private volatile long lastUsed;     // last time the token was used (expiry slides from here)
+
+        private Account(User user, String passwordHash) {
+            this.user = user;
+            this.passwordHash = passwordHash;
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
 }
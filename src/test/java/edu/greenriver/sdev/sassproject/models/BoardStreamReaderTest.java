@@ -0,0 +1,65 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for reading newline-delimited boards from an import stream.
+ */
+class BoardStreamReaderTest {
+
+    @Test
+    void readsBoardsAndSkipsBlankLines() throws IOException {
+        BoardStreamReader reader = reader("[1,2,3,4]\n\n  \r\n1 2\t3,4\r\n[10, 0]");
+        assertArrayEquals(new int[] {1, 2, 3, 4}, reader.next());
+        assertArrayEquals(new int[] {1, 2, 3, 4}, reader.next());
+        assertArrayEquals(new int[] {10, 0}, reader.next());
+        assertNull(reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void flagsMalformedLinesAndKeepsReading() throws IOException {
+        BoardStreamReader reader = reader("[1,x,3]\n[1,2,3,4,5]\n[99999999]\n[4,3,2,1]\n");
+        assertEquals(0, reader.next().length);
+        // More values than any board
+        assertEquals(0, reader.next().length);
+        assertEquals(0, reader.next().length);
+        assertArrayEquals(new int[] {4, 3, 2, 1}, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void readsLinesLongerThanTheBuffer() throws IOException {
+        int count = 256;
+        StringBuilder lines = new StringBuilder();
+        for (int board = 0; board < 500; board++) {
+            lines.append('[');
+            for (int cell = 0; cell < count; cell++) {
+                lines.append(cell == 0 ? "" : ",").append((board + cell) % 17);
+            }
+            lines.append("]\n");
+        }
+
+        BoardStreamReader reader = new BoardStreamReader(
+                new ByteArrayInputStream(lines.toString().getBytes(StandardCharsets.US_ASCII)), count);
+        for (int board = 0; board < 500; board++) {
+            int[] cells = reader.next();
+            assertEquals(count, cells.length);
+            assertEquals(board % 17, cells[0]);
+            assertEquals((board + count - 1) % 17, cells[count - 1]);
+        }
+        assertNull(reader.next());
+    }
+
+    private static BoardStreamReader reader(String text) {
+        return new BoardStreamReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)), 4);
+    }
+}
@@ -0,0 +1,66 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that boards related by the sudoku symmetries share one canonical form.
+ */
+class CanonicalFormTest {
+
+    private final PuzzleGenerator generator = new PuzzleGenerator();
+
+    @Test
+    void equivalentBoardsShareCanonicalForm() {
+        for (BoardSize size : BoardSize.values()) {
+            int[] solution = generator.generateSolution(size);
+            int[] canonical = CanonicalForm.canonicalize(size, solution);
+            assertFalse(ConflictDetector.hasConflicts(size, canonical));
+            assertArrayEquals(canonical, CanonicalForm.canonicalize(size, transpose(size, solution)));
+            assertArrayEquals(canonical, CanonicalForm.canonicalize(size, relabel(size, solution)));
+            assertArrayEquals(canonical, CanonicalForm.canonicalize(size, swapBands(size, solution)));
+            assertArrayEquals(canonical, CanonicalForm.canonicalize(size, canonical));
+        }
+    }
+
+    @Test
+    void rejectsIncompleteBoard() {
+        int[] solution = generator.generateSolution(BoardSize.B9x9);
+        solution[10] = 0;
+        assertThrows(IllegalArgumentException.class, () -> CanonicalForm.canonicalize(BoardSize.B9x9, solution));
+    }
+
+    private static int[] transpose(BoardSize size, int[] board) {
+        int n = size.getDimensions();
+        int[] result = new int[board.length];
+        for (int row = 0; row < n; row++) {
+            for (int column = 0; column < n; column++) {
+                result[column * n + row] = board[row * n + column];
+            }
+        }
+        return result;
+    }
+
+    // Method to swap every digit v with n + 1 - v
+    private static int[] relabel(BoardSize size, int[] board) {
+        int[] result = new int[board.length];
+        for (int cell = 0; cell < board.length; cell++) {
+            result[cell] = size.getDimensions() + 1 - board[cell];
+        }
+        return result;
+    }
+
+    // Method to swap the first and last bands of rows
+    private static int[] swapBands(BoardSize size, int[] board) {
+        int n = size.getDimensions();
+        int bandCells = size.getRoot() * n;
+        int[] result = board.clone();
+        System.arraycopy(board, 0, result, board.length - bandCells, bandCells);
+        System.arraycopy(board, board.length - bandCells, result, 0, bandCells);
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.Difficulty;
+import edu.greenriver.sdev.sassproject.models.enums.Technique;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for grading puzzles by the solving techniques they need.
+ */
+class DifficultyGraderTest {
+
+    private static final int[] SINGLES_PUZZLE = {
+            5, 3, 0, 0, 7, 0, 0, 0, 0,
+            6, 0, 0, 1, 9, 5, 0, 0, 0,
+            0, 9, 8, 0, 0, 0, 0, 6, 0,
+            8, 0, 0, 0, 6, 0, 0, 0, 3,
+            4, 0, 0, 8, 0, 3, 0, 0, 1,
+            7, 0, 0, 0, 2, 0, 0, 0, 6,
+            0, 6, 0, 0, 0, 0, 2, 8, 0,
+            0, 0, 0, 4, 1, 9, 0, 0, 5,
+            0, 0, 0, 0, 8, 0, 0, 7, 9
+    };
+
+    @Test
+    void gradesSinglesPuzzleEasy() {
+        PuzzleGrade grade = DifficultyGrader.grade(BoardSize.B9x9, SINGLES_PUZZLE);
+        assertEquals(Difficulty.EASY, grade.getDifficulty());
+        assertEquals(51, grade.getSteps());
+    }
+
+    @Test
+    void gradesEmptyBoardExpert() {
+        PuzzleGrade grade = DifficultyGrader.grade(BoardSize.B9x9, new int[81]);
+        assertEquals(Technique.TRIAL_AND_ERROR, grade.getHardestTechnique());
+        assertEquals(Difficulty.EXPERT, grade.getDifficulty());
+    }
+
+    @Test
+    void gradesEveryFourByFourPuzzleEasy() {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Difficulty.EASY, DifficultyGrader.grade(BoardSize.B4x4, generator.generate(BoardSize.B4x4)).getDifficulty());
+        }
+    }
+
+    @Test
+    void gradingIsDeterministic() {
+        int[] puzzle = new PuzzleGenerator().generate(BoardSize.B9x9);
+        PuzzleGrade first = DifficultyGrader.grade(BoardSize.B9x9, puzzle);
+        PuzzleGrade second = DifficultyGrader.grade(BoardSize.B9x9, puzzle);
+        assertEquals(first.getHardestTechnique(), second.getHardestTechnique());
+        assertEquals(first.getSteps(), second.getSteps());
+    }
+
+    @Test
+    void rejectsBoardOfWrongSize() {
+        assertThrows(IllegalArgumentException.class, () -> DifficultyGrader.grade(BoardSize.B9x9, new int[16]));
+    }
+}
@@ -0,0 +1,66 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that moves report only the cells whose conflict state changed.
+ */
+class GameSessionTest {
+
+    // 4x4 solution with the last row left empty
+    private static final int[] PUZZLE = {
+            1, 2, 3, 4,
+            3, 4, 1, 2,
+            2, 1, 4, 3,
+            0, 0, 0, 0
+    };
+
+    @Test
+    void reportsConflictDeltas() {
+        GameSession session = new GameSession("game", "127.0.0.1", new Board(BoardSize.B4x4, PUZZLE));
+
+        // A 1 in the bottom left corner repeats the 1 in its column and in its group
+        ConflictDelta delta = session.play(12, 1);
+        assertEquals(Set.of(0, 9, 12), Set.copyOf(delta.getAdded()));
+        assertTrue(delta.getCleared().isEmpty());
+        assertEquals(Set.of(0, 9, 12), session.getConflictingCells());
+
+        delta = session.play(12, 4);
+        assertEquals(Set.of(0, 9, 12), Set.copyOf(delta.getCleared()));
+        assertTrue(delta.getAdded().isEmpty());
+        assertFalse(delta.isSolved());
+        assertTrue(session.getConflictingCells().isEmpty());
+    }
+
+    @Test
+    void reportsSolvedOnLastMove() {
+        GameSession session = new GameSession("game", "127.0.0.1", new Board(BoardSize.B4x4, PUZZLE));
+        assertFalse(session.play(12, 4).isSolved());
+        assertFalse(session.play(13, 3).isSolved());
+        assertFalse(session.play(14, 2).isSolved());
+        assertTrue(session.play(15, 1).isSolved());
+        assertTrue(session.isSolved());
+
+        ConflictDelta delta = session.play(15, 0);
+        assertEquals(List.of(), delta.getAdded());
+        assertFalse(delta.isSolved());
+    }
+
+    @Test
+    void rejectsCluesAndCellsOffTheBoard() {
+        GameSession session = new GameSession("game", "127.0.0.1", new Board(BoardSize.B4x4, PUZZLE));
+        assertThrows(IllegalArgumentException.class, () -> session.play(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> session.play(16, 1));
+        assertThrows(IllegalArgumentException.class, () -> session.play(-1, 1));
+        assertEquals(1, session.getCells()[0]);
+    }
+}
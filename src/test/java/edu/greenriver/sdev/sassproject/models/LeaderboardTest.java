@@ -0,0 +1,92 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests leaderboard positions against a brute force count of players with
+ * more wins.
+ */
+class LeaderboardTest {
+
+    @Test
+    void tiedPlayersShareAPosition() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.set("a", "A", 5);
+        leaderboard.set("b", "B", 9);
+        leaderboard.set("c", "C", 5);
+        leaderboard.set("d", "D", 1);
+
+        assertEquals(1, leaderboard.find("b").getPosition());
+        assertEquals(2, leaderboard.find("a").getPosition());
+        assertEquals(2, leaderboard.find("c").getPosition());
+        assertEquals(4, leaderboard.find("d").getPosition());
+
+        List<LeaderboardEntry> top = leaderboard.top(3);
+        assertEquals(3, top.size());
+        assertEquals("B", top.get(0).getUsername());
+        assertEquals(2, top.get(1).getPosition());
+        assertEquals(2, top.get(2).getPosition());
+    }
+
+    @Test
+    void updatesAndRemovesPlayers() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.set("a", "A", 5);
+        leaderboard.set("b", "B", 9);
+        leaderboard.set("a", "A", 10);
+        assertEquals(1, leaderboard.find("a").getPosition());
+        assertEquals(2, leaderboard.find("b").getPosition());
+
+        leaderboard.remove("a");
+        assertNull(leaderboard.find("a"));
+        assertEquals(1, leaderboard.find("b").getPosition());
+        assertEquals(1, leaderboard.size());
+        leaderboard.remove("missing");
+        assertEquals(1, leaderboard.size());
+    }
+
+    @Test
+    void handlesExtremeWins() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.set("max", "Max", Integer.MAX_VALUE);
+        leaderboard.set("next", "Next", Integer.MAX_VALUE - 1);
+        leaderboard.set("zero", "Zero", 0);
+        assertEquals(1, leaderboard.find("max").getPosition());
+        assertEquals(2, leaderboard.find("next").getPosition());
+        assertEquals(3, leaderboard.find("zero").getPosition());
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.set("neg", "Neg", -1));
+    }
+
+    @Test
+    void positionsMatchBruteForce() {
+        Leaderboard leaderboard = new Leaderboard();
+        Map<String, Integer> wins = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            String key = "user" + random.nextInt(500);
+            if (random.nextInt(10) == 0) {
+                leaderboard.remove(key);
+                wins.remove(key);
+            } else {
+                int value = random.nextBoolean() ? random.nextInt(50) : random.nextInt(Integer.MAX_VALUE);
+                leaderboard.set(key, key, value);
+                wins.put(key, value);
+            }
+        }
+
+        assertEquals(wins.size(), leaderboard.size());
+        for (Map.Entry<String, Integer> player : wins.entrySet()) {
+            long above = wins.values().stream().filter(other -> other > player.getValue()).count();
+            assertEquals(above + 1, leaderboard.find(player.getKey()).getPosition());
+        }
+    }
+}
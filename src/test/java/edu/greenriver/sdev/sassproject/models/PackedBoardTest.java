@@ -0,0 +1,62 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for packing boards and round-tripping their IDs.
+ */
+class PackedBoardTest {
+
+    private final PuzzleGenerator generator = new PuzzleGenerator();
+
+    @Test
+    void idRoundTrips() {
+        for (BoardSize size : BoardSize.values()) {
+            int[] puzzle = generator.generate(size);
+            PackedBoard packed = PackedBoard.of(size, puzzle);
+            assertArrayEquals(puzzle, packed.toArray());
+
+            PackedBoard fromId = PackedBoard.fromId(size, packed.toId());
+            assertEquals(packed, fromId);
+            assertEquals(packed.hashCode(), fromId.hashCode());
+            assertArrayEquals(puzzle, fromId.toArray());
+            for (int cell = 0; cell < puzzle.length; cell++) {
+                assertEquals(puzzle[cell], fromId.get(cell));
+            }
+        }
+    }
+
+    @Test
+    void wordsRoundTrip() {
+        BoardSize size = BoardSize.B16x16;
+        PackedBoard packed = PackedBoard.of(size, generator.generateSolution(size));
+        long[] words = new long[PackedBoard.wordCount(size)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = packed.getWord(i);
+        }
+        assertEquals(packed, PackedBoard.fromWords(size, words));
+    }
+
+    @Test
+    void rejectsValuesOutOfRange() {
+        int[] board = new int[16];
+        board[3] = 5;
+        assertThrows(IllegalArgumentException.class, () -> PackedBoard.of(BoardSize.B4x4, board));
+        assertThrows(IllegalArgumentException.class, () -> PackedBoard.of(BoardSize.B4x4, new int[81]));
+    }
+
+    @Test
+    void rejectsInvalidIds() {
+        String nineId = PackedBoard.of(BoardSize.B9x9, generator.generate(BoardSize.B9x9)).toId();
+        assertThrows(IllegalArgumentException.class, () -> PackedBoard.fromId(BoardSize.B4x4, nineId));
+        assertThrows(IllegalArgumentException.class, () -> PackedBoard.fromId(BoardSize.B9x9, "not*base64"));
+        assertThrows(IllegalArgumentException.class, () -> PackedBoard.fromId(BoardSize.B9x9, nineId + "AAAA"));
+        // 0xF in a 4-bit 9x9 cell is not a value
+        assertThrows(IllegalArgumentException.class, () -> PackedBoard.fromId(BoardSize.B9x9, "_w"));
+    }
+}
@@ -0,0 +1,76 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that generated puzzles have a unique solution and that generation
+ * honors its deadline and cancellation.
+ */
+class PuzzleGeneratorTest {
+
+    private final PuzzleGenerator generator = new PuzzleGenerator();
+
+    @Test
+    void generatesPuzzlesWithUniqueSolution() {
+        for (BoardSize size : BoardSize.values()) {
+            int[] puzzle = generator.generate(size);
+            assertEquals(size.getCellCount(), puzzle.length);
+            assertFalse(ConflictDetector.hasConflicts(size, puzzle));
+            assertEquals(1, SudokuSolver.countSolutions(size, puzzle, 2), size.getName());
+        }
+    }
+
+    @Test
+    void removesCluesTowardTarget() {
+        BoardSize size = BoardSize.B9x9;
+        int clues = 0;
+        for (int value : generator.generate(size)) {
+            if (value != 0) {
+                clues++;
+            }
+        }
+        assertTrue(clues < size.getCellCount());
+        assertTrue(clues >= generator.getTargetClues(size));
+    }
+
+    @Test
+    void generatesCompleteSolutions() {
+        for (BoardSize size : BoardSize.values()) {
+            int[] solution = generator.generateSolution(size);
+            assertNotNull(solution);
+            assertFalse(ConflictDetector.hasConflicts(size, solution));
+            for (int value : solution) {
+                assertTrue(value > 0);
+            }
+        }
+    }
+
+    @Test
+    void returnsNullOncePastDeadline() {
+        assertNull(generator.generate(BoardSize.B16x16, System.nanoTime() - 1, null));
+    }
+
+    @Test
+    void returnsNullWhenCancelled() {
+        JobProgress progress = new JobProgress();
+        progress.cancel();
+        assertNull(generator.generate(BoardSize.B16x16, SudokuSolver.NO_DEADLINE, progress));
+    }
+
+    @Test
+    void largeBoardsFinishWithinBudget() {
+        long limit = (PuzzleGenerator.DEFAULT_TIME_BUDGET_MS + 1_000) * 1_000_000L;
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            assertNotNull(generator.generate(BoardSize.B16x16));
+            assertTrue(System.nanoTime() - start < limit);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the bounded lock-free queue used by the puzzle pool.
+ */
+class RingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(2, new RingBuffer<>(0).capacity());
+        assertEquals(8, new RingBuffer<>(8).capacity());
+        assertEquals(16, new RingBuffer<>(9).capacity());
+    }
+
+    @Test
+    void keepsFifoOrderAndRejectsWhenFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(buffer.offer(i));
+            }
+            assertFalse(buffer.offer(4));
+            assertEquals(4, buffer.size());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i, (int) buffer.poll());
+            }
+            assertNull(buffer.poll());
+            assertEquals(0, buffer.size());
+        }
+    }
+
+    @Test
+    void concurrentProducersAndConsumersLoseNothing() throws Exception {
+        int producers = 2;
+        int perProducer = 20_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        ExecutorService threads = Executors.newFixedThreadPool(producers * 2);
+        List<Future<List<Integer>>> consumed = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            consumed.add(threads.submit(() -> {
+                List<Integer> taken = new ArrayList<>();
+                while (taken.size() < perProducer) {
+                    Integer item = buffer.poll();
+                    if (item != null) {
+                        taken.add(item);
+                    } else {
+                        Thread.yield();
+                    }
+                }
+                return taken;
+            }));
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        for (Future<List<Integer>> result : consumed) {
+            for (int item : result.get(60, TimeUnit.SECONDS)) {
+                assertTrue(seen.add(item), "taken twice");
+            }
+        }
+        threads.shutdown();
+        assertEquals(producers * perProducer, seen.size());
+        assertNull(buffer.poll());
+    }
+}
@@ -0,0 +1,93 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the dancing links solver, including that pooled solvers stay usable
+ * after a board is rejected.
+ */
+class SudokuSolverTest {
+
+    private static final int[] PUZZLE = {
+            5, 3, 0, 0, 7, 0, 0, 0, 0,
+            6, 0, 0, 1, 9, 5, 0, 0, 0,
+            0, 9, 8, 0, 0, 0, 0, 6, 0,
+            8, 0, 0, 0, 6, 0, 0, 0, 3,
+            4, 0, 0, 8, 0, 3, 0, 0, 1,
+            7, 0, 0, 0, 2, 0, 0, 0, 6,
+            0, 6, 0, 0, 0, 0, 2, 8, 0,
+            0, 0, 0, 4, 1, 9, 0, 0, 5,
+            0, 0, 0, 0, 8, 0, 0, 7, 9
+    };
+
+    private static final int[] SOLUTION = {
+            5, 3, 4, 6, 7, 8, 9, 1, 2,
+            6, 7, 2, 1, 9, 5, 3, 4, 8,
+            1, 9, 8, 3, 4, 2, 5, 6, 7,
+            8, 5, 9, 7, 6, 1, 4, 2, 3,
+            4, 2, 6, 8, 5, 3, 7, 9, 1,
+            7, 1, 3, 9, 2, 4, 8, 5, 6,
+            9, 6, 1, 5, 3, 7, 2, 8, 4,
+            2, 8, 7, 4, 1, 9, 6, 3, 5,
+            3, 4, 5, 2, 8, 6, 1, 7, 9
+    };
+
+    @Test
+    void solvesPuzzle() {
+        assertArrayEquals(SOLUTION, SudokuSolver.solve(BoardSize.B9x9, PUZZLE));
+    }
+
+    @Test
+    void countsSolutionsUpToLimit() {
+        assertEquals(1, SudokuSolver.countSolutions(BoardSize.B9x9, PUZZLE, 2));
+        // An empty board has many solutions
+        assertEquals(2, SudokuSolver.countSolutions(BoardSize.B9x9, new int[81], 2));
+    }
+
+    @Test
+    void returnsNullForConflictingClues() {
+        int[] board = PUZZLE.clone();
+        board[2] = 5;   // second 5 in the top row
+        assertNull(SudokuSolver.solve(BoardSize.B9x9, board));
+        assertEquals(0, SudokuSolver.countSolutions(BoardSize.B9x9, board, 2));
+    }
+
+    @Test
+    void stopsAtDeadline() {
+        SudokuSolver solver = SudokuSolver.acquire(BoardSize.B16x16);
+        try {
+            // Counting every solution of an empty board never finishes on its own
+            solver.search(new int[256], null, Integer.MAX_VALUE, System.nanoTime() + 50_000_000L);
+            assertTrue(solver.isTimedOut());
+        } finally {
+            solver.release();
+        }
+        assertArrayEquals(SOLUTION, SudokuSolver.solve(BoardSize.B9x9, PUZZLE));
+    }
+
+    @Test
+    void rejectedBoardLeavesPooledSolverUsable() {
+        int[] bad = PUZZLE.clone();
+        bad[80] = 10;
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalArgumentException.class, () -> SudokuSolver.solve(BoardSize.B9x9, bad));
+            assertArrayEquals(SOLUTION, SudokuSolver.solve(BoardSize.B9x9, PUZZLE));
+        }
+        int[] negative = PUZZLE.clone();
+        negative[40] = -1;
+        assertThrows(IllegalArgumentException.class, () -> SudokuSolver.countSolutions(BoardSize.B9x9, negative, 2));
+        assertEquals(1, SudokuSolver.countSolutions(BoardSize.B9x9, PUZZLE, 2));
+    }
+
+    @Test
+    void rejectsBoardOfWrongSize() {
+        assertThrows(IllegalArgumentException.class, () -> SudokuSolver.solve(BoardSize.B9x9, new int[16]));
+    }
+}
@@ -0,0 +1,75 @@
+package edu.greenriver.sdev.sassproject.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the timing wheel expires each item once, no earlier than its
+ * deadline and within a tick after it.
+ */
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+
+    @Test
+    void expiresItemsAtTheirDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 1_000, 0);
+        wheel.schedule("a", 25);
+        wheel.schedule("b", 100);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(20, expired::add);
+        assertTrue(expired.isEmpty());
+        wheel.advance(30, expired::add);
+        assertEquals(List.of("a"), expired);
+        wheel.advance(99, expired::add);
+        assertEquals(List.of("a"), expired);
+        wheel.advance(100, expired::add);
+        assertEquals(List.of("a", "b"), expired);
+    }
+
+    @Test
+    void expiresPastDeadlinesOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 1_000, 500);
+        wheel.schedule("late", 100);
+        List<String> expired = new ArrayList<>();
+        wheel.advance(500, expired::add);
+        assertEquals(List.of("late"), expired);
+    }
+
+    @Test
+    void expiresRandomDeadlinesAcrossLevels() {
+        long maxDelay = 10_000_000;
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, maxDelay / 10, 0);
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = 1 + (long) (random.nextDouble() * maxDelay);
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+        }
+
+        Map<Integer, Long> expiredAt = new HashMap<>();
+        for (long now = 0; now <= maxDelay + TICK; now += 1 + random.nextInt(5_000)) {
+            long time = now;
+            wheel.advance(now, item -> {
+                assertEquals(null, expiredAt.put(item, time));
+            });
+        }
+        wheel.advance(maxDelay + TICK, item -> expiredAt.put(item, maxDelay + TICK));
+
+        assertEquals(deadlines.size(), expiredAt.size());
+        for (Map.Entry<Integer, Long> entry : deadlines.entrySet()) {
+            long at = expiredAt.get(entry.getKey());
+            assertTrue(at >= entry.getValue(), "expired early");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.User;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a change the mutation log cannot confirm is undone in memory, so
+ * the state matches what a client that saw the failure expects.
+ */
+class DurabilityFailureTest {
+
+    private final FailingLog log = new FailingLog();
+    private ScheduledExecutorService background;
+    private ForkJoinPool verificationPool;
+    private UserService userService;
+    private SudokuService sudokuService;
+
+    @BeforeEach
+    void setUp() {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        background = Executors.newSingleThreadScheduledExecutor();
+        verificationPool = new ForkJoinPool(2);
+        userService = new UserService(background, new TokenIssuer(), log, new SimpleMeterRegistry(), 900_000, 1, 1000);
+        // Watermarks of 0 keep the pool from generating in the background
+        PuzzlePool pool = new PuzzlePool(generator, background, PuzzleLibrary.disabled(), new SimpleMeterRegistry(), 0, 0, 0, 60_000);
+        sudokuService = new SudokuService(generator, pool, PuzzleLibrary.disabled(), verificationPool, log,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        background.shutdownNow();
+        verificationPool.shutdownNow();
+    }
+
+    @Test
+    void failedAddLeavesNoUser() {
+        log.failing = true;
+        assertThrows(UncheckedIOException.class, () -> userService.addUser(newUser("alice", "secret1")));
+        assertFalse(userService.userExists("alice"));
+
+        // A retry succeeds once the log is back
+        log.failing = false;
+        assertTrue(userService.addUser(newUser("alice", "secret1")));
+        assertNotNull(userService.getUserByName("alice", "secret1"));
+    }
+
+    @Test
+    void failedDeleteKeepsUser() {
+        assertTrue(userService.addUser(newUser("alice", "secret1")));
+        User stored = userService.getUserByName("alice", "secret1");
+        String token = stored.getToken();
+
+        log.failing = true;
+        assertThrows(UncheckedIOException.class, () -> userService.deleteUser(stored));
+        assertTrue(userService.userExists("alice"));
+        assertNotNull(userService.getUserByToken(token));
+    }
+
+    @Test
+    void failedUpdateRestoresUser() {
+        assertTrue(userService.addUser(newUser("alice", "secret1")));
+        User stored = userService.getUserByName("alice", "secret1");
+
+        User updated = new User("alice");
+        updated.assignToken(stored.getToken(), stored.getLastGen());
+        updated.setGamesWonBySize(BoardSize.B9x9, 3);
+        updated.setTotalGamesWon(3);
+        log.failing = true;
+        assertThrows(UncheckedIOException.class, () -> userService.updateUser(updated));
+
+        log.failing = false;
+        assertEquals(0, userService.getUserByName("alice", "secret1").getTotalGamesWon());
+    }
+
+    @Test
+    void failedBoardAddIsNotStored() {
+        int[] solution = new PuzzleGenerator().generateSolution(BoardSize.B9x9);
+        log.failing = true;
+        assertThrows(UncheckedIOException.class, () -> sudokuService.addCompleteBoard(BoardSize.B9x9, solution));
+        assertEquals(0, sudokuService.getCompleteBoardCount(BoardSize.B9x9));
+
+        log.failing = false;
+        assertTrue(sudokuService.addCompleteBoard(BoardSize.B9x9, solution));
+        assertEquals(1, sudokuService.getCompleteBoardCount(BoardSize.B9x9));
+    }
+
+    private static User newUser(String username, String password) {
+        User user = new User(username);
+        // A new user's token field holds their password
+        user.assignToken(password, 0);
+        return user;
+    }
+
+    // A log that keeps nothing and, while failing, never confirms a change
+    private static class FailingLog extends MutationLog {
+        private volatile boolean failing;
+
+        FailingLog() {
+            super("", 1);
+        }
+
+        @Override
+        public void awaitDurable() {
+            if (failing) {
+                throw new UncheckedIOException(new IOException("sync failed"));
+            }
+        }
+    }
+}
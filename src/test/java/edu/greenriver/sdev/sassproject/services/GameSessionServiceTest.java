@@ -0,0 +1,76 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.GameSession;
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that one client cannot hold more than its share of game sessions, and
+ * gives up its least recently used session rather than being refused.
+ */
+class GameSessionServiceTest {
+
+    private ScheduledExecutorService background;
+    private ForkJoinPool verificationPool;
+    private GameSessionService sessions;
+
+    @BeforeEach
+    void setUp() {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        background = Executors.newSingleThreadScheduledExecutor();
+        verificationPool = new ForkJoinPool(2);
+        // Watermarks of 0 keep the pool from generating in the background
+        PuzzlePool pool = new PuzzlePool(generator, background, PuzzleLibrary.disabled(), new SimpleMeterRegistry(), 0, 0, 0, 60_000);
+        SudokuService service = new SudokuService(generator, pool, PuzzleLibrary.disabled(), verificationPool,
+                MutationLog.disabled(), new SimpleMeterRegistry());
+        // 3 sessions in all, 2 for each client
+        sessions = new GameSessionService(service, background, 3, 2, 1_800_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        background.shutdownNow();
+        verificationPool.shutdownNow();
+    }
+
+    @Test
+    void evictsClientsLeastRecentlyUsedSession() {
+        GameSession first = sessions.createSession(BoardSize.B4x4, null, "10.0.0.1");
+        GameSession second = sessions.createSession(BoardSize.B4x4, null, "10.0.0.1");
+        sessions.getSession(first.getId());
+
+        GameSession third = sessions.createSession(BoardSize.B4x4, null, "10.0.0.1");
+        assertNotNull(third);
+        assertNotNull(sessions.getSession(first.getId()));
+        assertNull(sessions.getSession(second.getId()));
+        assertNotNull(sessions.getSession(third.getId()));
+    }
+
+    @Test
+    void refusesNewClientsOnlyWhenFull() {
+        sessions.createSession(BoardSize.B4x4, null, "10.0.0.1");
+        sessions.createSession(BoardSize.B4x4, null, "10.0.0.1");
+        assertNotNull(sessions.createSession(BoardSize.B4x4, null, "10.0.0.2"));
+
+        // Full: a new client is refused, a client at its limit swaps out its own session
+        assertNull(sessions.createSession(BoardSize.B4x4, null, "10.0.0.3"));
+        assertNull(sessions.createSession(BoardSize.B4x4, null, "10.0.0.2"));
+        assertNotNull(sessions.createSession(BoardSize.B4x4, null, "10.0.0.1"));
+
+        // Ending a session frees its slot for anyone
+        GameSession last = sessions.createSession(BoardSize.B4x4, null, "10.0.0.1");
+        sessions.removeSession(last.getId());
+        assertNotNull(sessions.createSession(BoardSize.B4x4, null, "10.0.0.3"));
+    }
+}
@@ -0,0 +1,192 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PackedBoard;
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.User;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that changes written to the mutation log are replayed in order after a
+ * restart, from the log alone or from a snapshot and the log after it.
+ */
+class MutationLogTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<MutationLog> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(MutationLog::close);
+    }
+
+    @Test
+    void replaysChangesAfterRestart() {
+        List<PackedBoard> boards = boards(50);
+        MutationLog log = open();
+        assertEquals(0, log.recover(new Recorded()));
+        for (PackedBoard board : boards) {
+            log.boardAdded(board);
+        }
+        log.userDeleted("alice");
+        log.awaitDurable();
+        log.close();
+
+        Recorded recovered = new Recorded();
+        assertEquals(boards.size() + 1, open().recover(recovered));
+        assertEquals(boards, recovered.boards);
+        assertEquals(List.of("alice"), recovered.deleted);
+    }
+
+    @Test
+    void replaysUsersWithPasswordHashes() {
+        MutationLog log = open();
+        log.recover(new Recorded());
+        String hash = PasswordHasher.hash("secret");
+        log.userSaved("alice", hash, new User("Alice"));
+        log.awaitDurable();
+        log.close();
+
+        Recorded recovered = new Recorded();
+        open().recover(recovered);
+        assertEquals(List.of("alice"), recovered.users);
+        assertEquals(List.of(hash), recovered.passwordHashes);
+    }
+
+    @Test
+    void ignoresTornRecordAtEndOfLog() throws IOException {
+        List<PackedBoard> boards = boards(10);
+        MutationLog log = open();
+        log.recover(new Recorded());
+        boards.forEach(log::boardAdded);
+        log.awaitDurable();
+        log.close();
+
+        // A crash part way through a write leaves a partial record
+        Path segment = newest("wal-");
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        Recorded recovered = new Recorded();
+        assertEquals(boards.size(), open().recover(recovered));
+        assertEquals(boards, recovered.boards);
+    }
+
+    @Test
+    void replaysSnapshotThenLaterChanges() {
+        List<PackedBoard> boards = boards(20);
+        MutationLog log = open();
+        log.recover(new Recorded());
+        boards.subList(0, 10).forEach(log::boardAdded);
+        log.awaitDurable();
+        log.snapshot(sink -> boards.subList(0, 10).forEach(sink::boardAdded));
+        boards.subList(10, 20).forEach(log::boardAdded);
+        log.awaitDurable();
+        log.close();
+
+        Recorded recovered = new Recorded();
+        assertEquals(boards.size(), open().recover(recovered));
+        assertEquals(boards, recovered.boards);
+    }
+
+    @Test
+    void callersWaitForRoomInFullQueue() {
+        List<PackedBoard> boards = boards(200);
+        // Room for two changes, so most callers wait for the writer
+        MutationLog log = new MutationLog(directory.toString(), 2);
+        opened.add(log);
+        log.recover(new Recorded());
+        boards.parallelStream().forEach(board -> {
+            log.boardAdded(board);
+            log.awaitDurable();
+        });
+        log.close();
+
+        Recorded recovered = new Recorded();
+        assertEquals(boards.size(), open().recover(recovered));
+        assertEquals(Set.copyOf(boards), Set.copyOf(recovered.boards));
+    }
+
+    @Test
+    void rejectsChangesOnceClosed() {
+        MutationLog log = open();
+        log.recover(new Recorded());
+        log.close();
+        assertThrows(UncheckedIOException.class, () -> log.boardAdded(boards(1).get(0)));
+        assertNull(log.getFailure());
+    }
+
+    @Test
+    void disabledLogKeepsNothing() {
+        MutationLog log = MutationLog.disabled();
+        assertEquals(0, log.recover(new Recorded()));
+        log.boardAdded(boards(1).get(0));
+        log.awaitDurable();
+        assertFalse(log.isEnabled());
+    }
+
+    private MutationLog open() {
+        MutationLog log = new MutationLog(directory.toString(), 1024);
+        opened.add(log);
+        return log;
+    }
+
+    private Path newest(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix))
+                    .max(Path::compareTo)
+                    .orElseThrow();
+        }
+    }
+
+    private static List<PackedBoard> boards(int count) {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        List<PackedBoard> boards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            boards.add(PackedBoard.of(BoardSize.B9x9, generator.generateSolution(BoardSize.B9x9)));
+        }
+        return boards;
+    }
+
+    // Records every replayed change
+    private static class Recorded implements Mutations {
+        private final List<String> users = new ArrayList<>();
+        private final List<String> passwordHashes = new ArrayList<>();
+        private final List<String> deleted = new ArrayList<>();
+        private final List<PackedBoard> boards = new ArrayList<>();
+
+        @Override
+        public void userSaved(String username, String passwordHash, User user) {
+            users.add(username);
+            passwordHashes.add(passwordHash);
+        }
+
+        @Override
+        public void userDeleted(String username) {
+            deleted.add(username);
+        }
+
+        @Override
+        public void boardAdded(PackedBoard board) {
+            boards.add(board);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for hashing and checking passwords.
+ */
+class PasswordHasherTest {
+
+    @Test
+    void matchesOnlyTheHashedPassword() {
+        String hash = PasswordHasher.hash("password");
+        assertTrue(hash.startsWith("pbkdf2-sha256$"));
+        assertFalse(hash.contains("password"));
+        assertTrue(PasswordHasher.matches("password", hash));
+        assertFalse(PasswordHasher.matches("Password", hash));
+        assertFalse(PasswordHasher.matches(null, hash));
+    }
+
+    @Test
+    void saltsEachHash() {
+        assertNotEquals(PasswordHasher.hash("password"), PasswordHasher.hash("password"));
+    }
+
+    @Test
+    void rejectsRawAndMalformedStoredPasswords() {
+        assertFalse(PasswordHasher.matches("password", "password"));
+        assertFalse(PasswordHasher.matches("password", "pbkdf2-sha256$x$y"));
+        assertFalse(PasswordHasher.matches("password", "pbkdf2-sha256$ten$AAAA$AAAA"));
+    }
+}
@@ -0,0 +1,108 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.Difficulty;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the puzzle library keeps each puzzle once, across restarts.
+ */
+class PuzzleLibraryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storesEachPuzzleOnce() {
+        BoardSize size = BoardSize.B9x9;
+        List<int[]> puzzles = puzzles(size, 20);
+
+        PuzzleLibrary library = new PuzzleLibrary(directory.toString(), 1_000);
+        for (int[] puzzle : puzzles) {
+            assertTrue(library.add(size, Difficulty.MEDIUM, puzzle));
+            assertFalse(library.add(size, Difficulty.MEDIUM, puzzle));
+        }
+        assertEquals(puzzles.size(), library.count(size, Difficulty.MEDIUM));
+        for (int i = 0; i < puzzles.size(); i++) {
+            assertArrayEquals(puzzles.get(i), library.get(size, Difficulty.MEDIUM, i));
+        }
+        library.close();
+
+        // Puzzles stored before a restart are still recognized
+        PuzzleLibrary reopened = new PuzzleLibrary(directory.toString(), 1_000);
+        for (int[] puzzle : puzzles) {
+            assertFalse(reopened.add(size, Difficulty.MEDIUM, puzzle));
+        }
+        assertEquals(puzzles.size(), reopened.count(size, Difficulty.MEDIUM));
+        assertTrue(reopened.add(size, Difficulty.MEDIUM, new PuzzleGenerator().generate(size)));
+        reopened.close();
+    }
+
+    @Test
+    void rebuildsAMissingOrResizedIndex() throws Exception {
+        BoardSize size = BoardSize.B9x9;
+        List<int[]> puzzles = puzzles(size, 10);
+        PuzzleLibrary library = new PuzzleLibrary(directory.toString(), 1_000);
+        for (int[] puzzle : puzzles) {
+            library.add(size, Difficulty.HARD, puzzle);
+        }
+        library.close();
+
+        // A different cap resizes the index, and a deleted index is rebuilt from the records
+        PuzzleLibrary resized = new PuzzleLibrary(directory.toString(), 100_000);
+        assertFalse(resized.add(size, Difficulty.HARD, puzzles.get(0)));
+        resized.close();
+        Files.delete(directory.resolve("9x9-hard.puzzles.index"));
+        PuzzleLibrary rebuilt = new PuzzleLibrary(directory.toString(), 100_000);
+        for (int[] puzzle : puzzles) {
+            assertFalse(rebuilt.add(size, Difficulty.HARD, puzzle));
+        }
+        assertEquals(puzzles.size(), rebuilt.count(size, Difficulty.HARD));
+        rebuilt.close();
+    }
+
+    @Test
+    void stopsAddingWhenFull() {
+        BoardSize size = BoardSize.B4x4;
+        PuzzleLibrary library = new PuzzleLibrary(directory.toString(), 3);
+        int added = 0;
+        for (int[] puzzle : puzzles(size, 50)) {
+            if (library.add(size, Difficulty.EASY, puzzle)) {
+                added++;
+            }
+        }
+        assertEquals(3, added);
+        assertEquals(3, library.count(size, Difficulty.EASY));
+        library.close();
+    }
+
+    @Test
+    void disabledLibraryStoresNothing() {
+        PuzzleLibrary library = PuzzleLibrary.disabled();
+        assertFalse(library.add(BoardSize.B4x4, Difficulty.EASY, new PuzzleGenerator().generate(BoardSize.B4x4)));
+        assertEquals(0, library.count(BoardSize.B4x4, Difficulty.EASY));
+        assertNull(library.draw(BoardSize.B4x4, null));
+    }
+
+    private static List<int[]> puzzles(BoardSize size, int count) {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        List<int[]> puzzles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            puzzles.add(generator.generate(size));
+        }
+        return puzzles;
+    }
+}
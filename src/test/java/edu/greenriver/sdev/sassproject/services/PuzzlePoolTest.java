@@ -0,0 +1,101 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import edu.greenriver.sdev.sassproject.models.enums.Difficulty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the puzzle pool stops generating once every bucket it can fill is
+ * full, instead of generating forever for difficulties a size never produces.
+ */
+class PuzzlePoolTest {
+
+    private static final int LOW_WATERMARK = 4;
+    private static final int HIGH_WATERMARK = 8;
+    private static final int MAX_PER_REFILL = 8;
+
+    private ScheduledExecutorService background;
+    private CountingGenerator generator;
+    private PuzzlePool pool;
+
+    @BeforeEach
+    void setUp() {
+        background = Executors.newSingleThreadScheduledExecutor();
+        generator = new CountingGenerator();
+        pool = new PuzzlePool(generator, background, PuzzleLibrary.disabled(), new SimpleMeterRegistry(),
+                LOW_WATERMARK, HIGH_WATERMARK, MAX_PER_REFILL, 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        background.shutdownNow();
+    }
+
+    @Test
+    void stopsGeneratingForUnreachableDifficulties() throws InterruptedException {
+        // Every 4x4 puzzle is easy, so the other 4x4 buckets can never fill
+        waitForDepth(BoardSize.B4x4, Difficulty.EASY, HIGH_WATERMARK);
+        Thread.sleep(500);
+        int generated = generator.count(BoardSize.B4x4);
+        Thread.sleep(500);
+
+        assertEquals(generated, generator.count(BoardSize.B4x4));
+        assertTrue(generated <= HIGH_WATERMARK + MAX_PER_REFILL, "generated " + generated);
+        assertEquals(0, pool.getDepth(BoardSize.B4x4, Difficulty.MEDIUM));
+    }
+
+    @Test
+    void drawsFromFilledBucket() throws InterruptedException {
+        waitForDepth(BoardSize.B4x4, Difficulty.EASY, HIGH_WATERMARK);
+        assertNotNull(pool.draw(BoardSize.B4x4, Difficulty.EASY));
+        assertEquals(HIGH_WATERMARK - 1, pool.getDepth(BoardSize.B4x4, Difficulty.EASY));
+    }
+
+    private void waitForDepth(BoardSize size, Difficulty difficulty, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (pool.getDepth(size, difficulty) < depth && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(depth, pool.getDepth(size, difficulty));
+    }
+
+    // Generates real 4x4 puzzles and repeats one stored puzzle for larger sizes, counting each call
+    private static class CountingGenerator extends PuzzleGenerator {
+        private final Map<BoardSize, int[]> fixed = new EnumMap<>(BoardSize.class);
+        private final Map<BoardSize, AtomicInteger> counts = new EnumMap<>(BoardSize.class);
+
+        CountingGenerator() {
+            for (BoardSize size : BoardSize.values()) {
+                counts.put(size, new AtomicInteger());
+                if (size != BoardSize.B4x4) {
+                    fixed.put(size, super.generate(size));
+                }
+            }
+        }
+
+        @Override
+        public int[] generate(BoardSize size) {
+            counts.get(size).incrementAndGet();
+            int[] puzzle = fixed.get(size);
+            return puzzle != null ? puzzle.clone() : super.generate(size);
+        }
+
+        int count(BoardSize size) {
+            return counts.get(size).get();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.PackedBoard;
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that a board ID is only served as a puzzle when the board it encodes
+ * has exactly one solution.
+ */
+class SudokuServiceBoardIdTest {
+
+    private ScheduledExecutorService background;
+    private ForkJoinPool verificationPool;
+    private SudokuService service;
+
+    @BeforeEach
+    void setUp() {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        background = Executors.newSingleThreadScheduledExecutor();
+        verificationPool = new ForkJoinPool(2);
+        // Watermarks of 0 keep the pool from generating in the background
+        PuzzlePool pool = new PuzzlePool(generator, background, PuzzleLibrary.disabled(), new SimpleMeterRegistry(), 0, 0, 0, 60_000);
+        service = new SudokuService(generator, pool, PuzzleLibrary.disabled(), verificationPool, MutationLog.disabled(),
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        background.shutdownNow();
+        verificationPool.shutdownNow();
+    }
+
+    @Test
+    void servesPuzzleWithUniqueSolution() {
+        for (BoardSize size : BoardSize.values()) {
+            int[] puzzle = service.generateBoard(size);
+            int[] decoded = service.decodeBoardId(size, service.getBoardId(size, puzzle));
+            assertArrayEquals(puzzle, decoded);
+            assertEquals(Boolean.TRUE, service.hasUniqueSolution(size, decoded));
+        }
+    }
+
+    @Test
+    void rejectsBoardsWithoutUniqueSolution() {
+        BoardSize size = BoardSize.B9x9;
+        // Empty board: many solutions
+        int[] empty = service.decodeBoardId(size, PackedBoard.of(size, new int[81]).toId());
+        assertEquals(Boolean.FALSE, service.hasUniqueSolution(size, empty));
+
+        // Two 1s in the top row: no solution
+        int[] conflicting = new int[81];
+        conflicting[0] = 1;
+        conflicting[1] = 1;
+        assertNull(service.decodeBoardId(size, PackedBoard.of(size, conflicting).toId()));
+
+        assertNull(service.decodeBoardId(size, "not an id"));
+    }
+}
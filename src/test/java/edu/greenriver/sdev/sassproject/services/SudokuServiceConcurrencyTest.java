@@ -0,0 +1,98 @@
+package edu.greenriver.sdev.sassproject.services;
+
+import edu.greenriver.sdev.sassproject.models.CanonicalForm;
+import edu.greenriver.sdev.sassproject.models.PackedBoard;
+import edu.greenriver.sdev.sassproject.models.PuzzleGenerator;
+import edu.greenriver.sdev.sassproject.models.enums.BoardSize;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stress test for the solved board store: many threads adding overlapping
+ * boards at once must store each essentially different board exactly once.
+ */
+class SudokuServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int SOLUTIONS = 200;
+
+    private ScheduledExecutorService background;
+    private ForkJoinPool verificationPool;
+    private SudokuService service;
+
+    @BeforeEach
+    void setUp() {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        background = Executors.newSingleThreadScheduledExecutor();
+        verificationPool = new ForkJoinPool(2);
+        // Watermarks of 0 keep the pool from generating in the background
+        PuzzlePool pool = new PuzzlePool(generator, background, PuzzleLibrary.disabled(), new SimpleMeterRegistry(), 0, 0, 0, 60_000);
+        service = new SudokuService(generator, pool, PuzzleLibrary.disabled(), verificationPool, MutationLog.disabled(),
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        background.shutdownNow();
+        verificationPool.shutdownNow();
+    }
+
+    @Test
+    void concurrentAddsStoreEachBoardOnce() throws Exception {
+        BoardSize size = BoardSize.B9x9;
+        PuzzleGenerator generator = new PuzzleGenerator();
+        List<int[]> solutions = new ArrayList<>();
+        Set<PackedBoard> distinct = new HashSet<>();
+        for (int i = 0; i < SOLUTIONS; i++) {
+            int[] solution = generator.generateSolution(size);
+            solutions.add(solution);
+            distinct.add(PackedBoard.of(size, CanonicalForm.canonicalize(size, solution)));
+        }
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> added = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<int[]> order = new ArrayList<>(solutions);
+            Collections.shuffle(order);
+            added.add(threads.submit(() -> {
+                start.await();
+                int count = 0;
+                for (int[] solution : order) {
+                    if (service.addCompleteBoard(size, solution)) {
+                        count++;
+                    }
+                    service.getCompleteBoardCount(size);
+                }
+                return count;
+            }));
+        }
+        start.countDown();
+
+        int totalAdded = 0;
+        for (Future<Integer> result : added) {
+            totalAdded += result.get(60, TimeUnit.SECONDS);
+        }
+        threads.shutdown();
+
+        assertEquals(distinct.size(), totalAdded);
+        assertEquals(distinct.size(), service.getCompleteBoardCount(size));
+    }
+}